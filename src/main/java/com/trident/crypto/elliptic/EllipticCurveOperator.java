@@ -40,6 +40,18 @@ public interface EllipticCurveOperator {
      */
     EllipticCurvePoint mul(BigInteger times, EllipticCurvePoint p1);
     
+    /**
+     * multiply many points at once, i.e. Q_i = k_i*P_i,
+     * the default multiplies them one by one
+     * @param times - numbers k_i
+     * @param points - points P_i
+     * @param out - receives Q_i, may be the same array as points
+     */
+    default void mulAll(BigInteger[] times, EllipticCurvePoint[] points, EllipticCurvePoint[] out){
+        if(times.length!=points.length || points.length!=out.length) throw new RuntimeException("times, points and output should have the same length");
+        for(int i=0;i<points.length;i++) out[i] = mul(times[i], points[i]);
+    }
+    
     /**
      * double provided point,
      * i.e. calculate Q = 2P;
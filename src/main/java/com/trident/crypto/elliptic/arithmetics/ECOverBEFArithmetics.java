@@ -17,8 +17,12 @@ package com.trident.crypto.elliptic.arithmetics;
 
 import com.trident.crypto.elliptic.EllipticCurve;
 import com.trident.crypto.elliptic.EllipticCurvePoint;
+import com.trident.crypto.field.BinaryExtensionField;
 import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.BitSlicedBinaryExtensionFieldArithmetics;
 import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.MutableFiniteFieldElement;
+import java.math.BigInteger;
 
 /**
  * for elliptic curves over prime finite fields the 
@@ -27,8 +31,140 @@ import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
  */
 public class ECOverBEFArithmetics extends EllipticCurveArithmetics{
     
+    // 64 lanes arithmetics of mulAll, built on the first use
+    private volatile BitSlicedBinaryExtensionFieldArithmetics batch;
+    private final boolean aZero, aOne, bOne; // the multiplications by a and b are skipped
+    
      public ECOverBEFArithmetics(EllipticCurve ellipticCurve) {
         super(ellipticCurve);
+        FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
+        BigInteger a = f.mod(ellipticCurve.getA());
+        this.aZero = a.signum()==0;
+        this.aOne = a.equals(BigInteger.ONE);
+        this.bOne = f.mod(ellipticCurve.getB()).equals(BigInteger.ONE);
+    }
+    
+    /**
+     * the points go by 64 through the bit-sliced Montgomery ladder in the
+     * Lopez-Dahab x-only coordinates, R0 = jP, R1 = (j+1)P, which takes the same
+     * steps for every lane, the scalars are set to the common length by adding
+     * the multiples of the curve order h*n, y is recovered at the end with
+     * one inversion of all lanes
+     * @see "J. Lopez, R. Dahab, Fast Multiplication on Elliptic Curves over GF(2^m) without Precomputation"
+     */
+    @Override
+    public void mulAll(BigInteger[] times, EllipticCurvePoint[] points, EllipticCurvePoint[] out){
+        if(times.length!=points.length || points.length!=out.length) throw new RuntimeException("times, points and output should have the same length");
+        for(BigInteger k: times){
+            if(k.signum()==-1) throw new RuntimeException("negative times");
+            if(k.signum()==0) throw new RuntimeException("multiply to zero");
+        }
+        BitSlicedBinaryExtensionFieldArithmetics bs = batch;
+        if(bs==null){
+            bs = new BitSlicedBinaryExtensionFieldArithmetics(((BinaryExtensionField)ellipticCurve.getFieldArithmetics().getField()).getIrreduciblePoly());
+            batch = bs;
+        }
+        for(int offset=0;offset<points.length;offset+=BitSlicedBinaryExtensionFieldArithmetics.LANES){
+            ladder(bs, times, points, out, offset);
+        }
+    }
+    
+    private void ladder(BitSlicedBinaryExtensionFieldArithmetics bs, BigInteger[] times, EllipticCurvePoint[] points, EllipticCurvePoint[] out, int offset){
+        int count = Math.min(BitSlicedBinaryExtensionFieldArithmetics.LANES, points.length-offset);
+        FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
+        // k = k mod N + N or + 2N has the length of N plus one bit, N*P = O for every point
+        BigInteger order = ellipticCurve.getN().multiply(ellipticCurve.getH());
+        int length = order.bitLength()+1;
+        BigInteger[] k = new BigInteger[count];
+        FiniteFieldElement[] px = new FiniteFieldElement[count];
+        FiniteFieldElement[] py = new FiniteFieldElement[count];
+        long special = 0; // the points of order 2 with x = 0 and the unused lanes
+        FiniteFieldElement one = f.getElementFactory().createFrom(BigInteger.ONE);
+        for(int j=0;j<count;j++){
+            k[j] = times[offset+j].mod(order).add(order);
+            if(k[j].bitLength()<length) k[j] = k[j].add(order);
+            px[j] = points[offset+j].getPointX();
+            py[j] = points[offset+j].getPointY();
+            if(f.mod(px[j]).signum()==0){
+                special |= 1L<<j;
+                px[j] = one;
+            }
+        }
+        if(count<BitSlicedBinaryExtensionFieldArithmetics.LANES) special |= -1L<<count;
+        
+        long[] x = bs.newSlice(), y = bs.newSlice(), b = bs.newSlice();
+        long[] x1 = bs.newSlice(), z1 = bs.newSlice(), x2 = bs.newSlice(), z2 = bs.newSlice();
+        long[] t0 = bs.newSlice(), t1 = bs.newSlice(), t2 = bs.newSlice();
+        long[] c = bs.newScratch();
+        boolean unit = getEllipticCurve().getB().equals(BigInteger.ONE);
+        bs.pack(x, px, 0);
+        bs.pack(y, py, 0);
+        bs.broadcast(b, getEllipticCurve().getB());
+        // R0 = P = (x : 1), R1 = 2P = (x^4 + b : x^2)
+        bs.set(x1, x);
+        bs.broadcast(z1, one);
+        bs.sqr(z2, x, c);
+        bs.sqr(x2, z2, c);
+        bs.add(x2, x2, b);
+        for(int i=length-2;i>=0;i--){
+            long mask = 0;
+            for(int j=0;j<count;j++) if(k[j].testBit(i)) mask |= 1L<<j;
+            bs.swap(x1, x2, mask);
+            bs.swap(z1, z2, mask);
+            // R1 = R0 + R1: Z = (X1*Z2 + X2*Z1)^2, X = x*Z + X1*Z2*X2*Z1
+            bs.mul(t0, x1, z2, c);
+            bs.mul(t1, x2, z1, c);
+            bs.add(z2, t0, t1);
+            bs.sqr(z2, z2, c);
+            bs.mul(t0, t0, t1, c);
+            bs.mul(x2, x, z2, c);
+            bs.add(x2, x2, t0);
+            // R0 = 2*R0: Z = X1^2*Z1^2, X = X1^4 + b*Z1^4
+            bs.sqr(t0, x1, c);
+            bs.sqr(t1, z1, c);
+            bs.mul(z1, t0, t1, c);
+            bs.sqr(t0, t0, c);
+            bs.sqr(t1, t1, c);
+            if(!unit) bs.mul(t1, t1, b, c);
+            bs.add(x1, t0, t1);
+            bs.swap(x1, x2, mask);
+            bs.swap(z1, z2, mask);
+        }
+        
+        long infinity = bs.zeroMask(z1); // kP = O
+        long opposite = bs.zeroMask(z2) & ~infinity; // (k+1)P = O, so kP = -P
+        // 1/(x*Z1*Z2), x3 = X1*x*Z2/(x*Z1*Z2)
+        bs.mul(t2, x, z2, c); // x*Z2
+        bs.mul(t0, t2, z1, c);
+        bs.inv(t0, t0);
+        bs.mul(t1, x1, t2, c);
+        bs.mul(t1, t1, t0, c); // x3
+        // y3 = (x + x3)*((X1 + x*Z1)*(X2 + x*Z2) + (x^2 + y)*Z1*Z2)/(x*Z1*Z2) + y
+        bs.add(t2, t2, x2);
+        bs.mul(x2, x, z1, c);
+        bs.add(x2, x2, x1);
+        bs.mul(t2, t2, x2, c);
+        bs.mul(z1, z1, z2, c);
+        bs.sqr(x2, x, c);
+        bs.add(x2, x2, y);
+        bs.mul(z1, z1, x2, c);
+        bs.add(t2, t2, z1);
+        bs.mul(t2, t2, t0, c);
+        bs.add(x2, x, t1);
+        bs.mul(t2, t2, x2, c);
+        bs.add(t2, t2, y);
+        
+        FiniteFieldElement[] rx = new FiniteFieldElement[count];
+        FiniteFieldElement[] ry = new FiniteFieldElement[count];
+        bs.unpack(t1, rx, 0);
+        bs.unpack(t2, ry, 0);
+        for(int j=0;j<count;j++){
+            EllipticCurvePoint p = points[offset+j];
+            if(((special>>>j)&1)!=0) out[offset+j] = mul(times[offset+j], p);
+            else if(((infinity>>>j)&1)!=0) out[offset+j] = EllipticCurvePoint.POINT_ON_INFINITY;
+            else if(((opposite>>>j)&1)!=0) out[offset+j] = negate(p);
+            else out[offset+j] = EllipticCurvePoint.create(rx[j], ry[j]);
+        }
     }
 
     @Override
@@ -38,20 +174,138 @@ public class ECOverBEFArithmetics extends EllipticCurveArithmetics{
         FiniteFieldElement dy = f.add(p2.getPointY(), p1.getPointY()); //p2.y + p1.y
         FiniteFieldElement dx = f.add(p2.getPointX(), p1.getPointX()); //p2.x + p1.x 
         FiniteFieldElement m  = f.mul(dy, f.inv(dx)); // dy/dx
-        FiniteFieldElement p3x = f.add(f.add(f.add(f.add(f.mul(m, m),p1.getPointX()),p2.getPointX()),getEllipticCurve().getA()),m); // m^2 + m + p1.x + p2.x + a
-        FiniteFieldElement p3y = f.add(f.add(f.mul(m, f.add(p1.getPointX(), p3x)),p1.getPointY()),p3x); // m*(p1.x + p3.x) + p3.x + p1.y
+        FiniteFieldElement p3x = f.mulAdd(m, m, f.add(f.add(f.add(m, p1.getPointX()),p2.getPointX()),getEllipticCurve().getA())); // m^2 + m + p1.x + p2.x + a
+        FiniteFieldElement p3y = f.mulAdd(m, f.add(p1.getPointX(), p3x), f.add(p3x, p1.getPointY())); // m*(p1.x + p3.x) + p3.x + p1.y
         return EllipticCurvePoint.create(p3x, p3y);
     }
 
     @Override
     public EllipticCurvePoint doub(EllipticCurvePoint p1) {
         FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
-        FiniteFieldElement m  = f.add(f.mul(p1.getPointY(), f.inv(p1.getPointX())),p1.getPointX()); // m = p1.x + p1.y/p1.x
-        FiniteFieldElement p3x = f.add(f.add(f.mul(m, m),m),getEllipticCurve().getA()); // m^2 + m + a
-        FiniteFieldElement p3y = f.add(f.add(f.mul(p1.getPointX(), p1.getPointX()),p3x),f.mul(m, p3x)); // p1.x^2 + m*p3.x + p3.x
+        FiniteFieldElement m  = f.mulAdd(p1.getPointY(), f.inv(p1.getPointX()), p1.getPointX()); // m = p1.x + p1.y/p1.x
+        FiniteFieldElement p3x = f.mulAdd(m, m, f.add(m, getEllipticCurve().getA())); // m^2 + m + a
+        FiniteFieldElement p3y = f.mulAdd(m, p3x, f.add(f.sqr(p1.getPointX()), p3x)); // p1.x^2 + m*p3.x + p3.x
         return EllipticCurvePoint.create(p3x, p3y);
     }
 
+    @Override
+    boolean doubInto(FiniteFieldElementArithmetics f, Scratch s) {
+        if(f.isZero(s.x)) return true;
+        f.invInto(s.t0, s.x);
+        f.mulInto(s.t0, s.t0, s.y);
+        f.addInto(s.t0, s.t0, s.x); // m = x + y/x
+        f.sqrInto(s.t1, s.t0);
+        f.addInto(s.t1, s.t1, s.t0);
+        f.addInto(s.t1, s.t1, s.a); // x3 = m^2 + m + a
+        f.sqrInto(s.t2, s.x);
+        f.mulInto(s.t0, s.t0, s.t1);
+        f.addInto(s.t2, s.t2, s.t0);
+        f.addInto(s.y, s.t2, s.t1); // y3 = x^2 + m*x3 + x3
+        f.set(s.x, s.t1);
+        return false;
+    }
+
+    @Override
+    boolean addInto(FiniteFieldElementArithmetics f, Scratch s) {
+        if(f.isEqual(s.x, s.px)) return f.isEqual(s.y, s.py) ? doubInto(f, s) : true;
+        f.addInto(s.t0, s.y, s.py);
+        f.addInto(s.t1, s.x, s.px);
+        f.invInto(s.t1, s.t1);
+        f.mulInto(s.t0, s.t0, s.t1); // m = dy/dx
+        f.sqrInto(s.t1, s.t0);
+        f.addInto(s.t1, s.t1, s.t0);
+        f.addInto(s.t1, s.t1, s.x);
+        f.addInto(s.t1, s.t1, s.px);
+        f.addInto(s.t1, s.t1, s.a); // x3 = m^2 + m + x + px + a
+        f.addInto(s.t2, s.x, s.t1);
+        f.mulInto(s.t2, s.t0, s.t2);
+        f.addInto(s.t2, s.t2, s.t1);
+        f.addInto(s.y, s.t2, s.y); // y3 = m*(x + x3) + x3 + y
+        f.set(s.x, s.t1);
+        return false;
+    }
+
+    /**
+     * Lopez-Dahab doubling, (X, Y, Z) is the point (X/Z, Y/Z^2),
+     * Z3 = X^2*Z^2, X3 = X^4 + b*Z^4, Y3 = b*Z^4*Z3 + X3*(a*Z3 + Y^2 + b*Z^4)
+     * @see "J. Lopez, R. Dahab, Improved Algorithms for Elliptic Curve Arithmetic in GF(2^n)"
+     */
+    @Override
+    boolean doubProjectiveInto(FiniteFieldElementArithmetics f, Scratch s) {
+        if(f.isZero(s.x)) return true;
+        f.sqrInto(s.t0, s.x);
+        f.sqrInto(s.t1, s.z);
+        f.mulInto(s.z, s.t0, s.t1); // Z3
+        f.sqrInto(s.t1, s.t1);
+        if(!bOne) f.mulInto(s.t1, s.t1, s.b); // b*Z^4
+        f.sqrInto(s.x, s.t0);
+        f.addInto(s.x, s.x, s.t1); // X3
+        mulA(f, s, s.t2, s.z);
+        f.sqrInto(s.t3, s.y);
+        f.addInto(s.t2, s.t2, s.t3);
+        f.addInto(s.t2, s.t2, s.t1);
+        f.mulInto(s.t2, s.x, s.t2);
+        f.mulInto(s.t1, s.t1, s.z);
+        f.addInto(s.y, s.t1, s.t2); // Y3
+        return false;
+    }
+
+    /**
+     * mixed Lopez-Dahab-affine addition, A = py*Z^2 + Y, B = px*Z + X, C = Z*B,
+     * D = B^2*(C + a*Z^2), Z3 = C^2, E = A*C, X3 = A^2 + D + E,
+     * Y3 = (E + Z3)*(X3 + px*Z3) + (px + py)*Z3^2
+     */
+    @Override
+    boolean addProjectiveInto(FiniteFieldElementArithmetics f, Scratch s) {
+        f.sqrInto(s.t0, s.z);
+        f.mulInto(s.t1, s.py, s.t0);
+        f.addInto(s.t1, s.t1, s.y); // A
+        f.mulInto(s.t2, s.px, s.z);
+        f.addInto(s.t2, s.t2, s.x); // B
+        if(f.isZero(s.t2)) return f.isZero(s.t1) ? doubProjectiveInto(f, s) : true;
+        f.mulInto(s.t3, s.z, s.t2); // C
+        mulA(f, s, s.t0, s.t0);
+        f.addInto(s.t0, s.t0, s.t3);
+        f.sqrInto(s.t2, s.t2);
+        f.mulInto(s.t2, s.t2, s.t0); // D
+        f.sqrInto(s.z, s.t3); // Z3
+        f.mulInto(s.t3, s.t1, s.t3); // E
+        f.sqrInto(s.x, s.t1);
+        f.addInto(s.x, s.x, s.t2);
+        f.addInto(s.x, s.x, s.t3); // X3
+        f.mulInto(s.t0, s.px, s.z);
+        f.addInto(s.t0, s.t0, s.x);
+        f.addInto(s.t3, s.t3, s.z);
+        f.mulInto(s.t3, s.t3, s.t0);
+        f.sqrInto(s.t0, s.z);
+        f.addInto(s.t2, s.px, s.py);
+        f.mulInto(s.t0, s.t0, s.t2);
+        f.addInto(s.y, s.t3, s.t0); // Y3
+        return false;
+    }
+
+    @Override
+    void toAffine(FiniteFieldElementArithmetics f, Scratch s, MutableFiniteFieldElement zInv) {
+        f.mulInto(s.x, s.x, zInv);
+        f.sqrInto(s.t0, zInv);
+        f.mulInto(s.y, s.y, s.t0);
+        f.set(s.z, s.one);
+    }
+
+    @Override
+    void negateInto(FiniteFieldElementArithmetics f, MutableFiniteFieldElement x, MutableFiniteFieldElement y) {
+        f.addInto(y, y, x); // -(x, y) = (x, x + y)
+    }
+
+    /**
+     * r = a*x, r may alias x
+     */
+    private void mulA(FiniteFieldElementArithmetics f, Scratch s, MutableFiniteFieldElement r, MutableFiniteFieldElement x){
+        if(aZero) f.addInto(r, x, x);
+        else if(aOne) f.set(r, x);
+        else f.mulInto(r, x, s.a);
+    }
+
     /**
      * 
      * @param p1 - elliptic curve point
@@ -60,13 +314,9 @@ public class ECOverBEFArithmetics extends EllipticCurveArithmetics{
     @Override
     public boolean belongsTo(EllipticCurvePoint p1) {
         FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
-        FiniteFieldElement y2 = f.mul(p1.getPointY(), p1.getPointY()); //y^2
-        FiniteFieldElement xy = f.mul(p1.getPointX(), p1.getPointY()); //xy
-        FiniteFieldElement lp = f.add(y2, xy); //y^2+xy
-        FiniteFieldElement x2 = f.mul(p1.getPointX(), p1.getPointX()); //x^2
-        FiniteFieldElement x3 = f.mul(x2,p1.getPointX()); // x^3
-        FiniteFieldElement ax2 = f.mul(x2, getEllipticCurve().getA()); // ax^2
-        FiniteFieldElement res = f.add(f.add(x3, ax2),getEllipticCurve().getB()); // x^3+ax^2+b
+        FiniteFieldElement lp = f.addMul(p1.getPointY(), p1.getPointX(), p1.getPointY()); //(y+x)y = y^2+xy
+        FiniteFieldElement x2 = f.sqr(p1.getPointX()); //x^2
+        FiniteFieldElement res = f.mulAdd(x2, f.add(p1.getPointX(), getEllipticCurve().getA()), getEllipticCurve().getB()); // x^2(x+a)+b = x^3+ax^2+b
         return lp.equals(res); // y^2 +xy = x^3 +ax^2 + b
     }
 
@@ -9,6 +9,7 @@ import com.trident.crypto.elliptic.EllipticCurve;
 import com.trident.crypto.elliptic.EllipticCurvePoint;
 import com.trident.crypto.field.element.FiniteFieldElement;
 import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.MutableFiniteFieldElement;
 import java.math.BigInteger;
 
 
@@ -19,8 +20,15 @@ import java.math.BigInteger;
  */
 public class ECOverPFArithmetics extends EllipticCurveArithmetics{
     
+    // a = 0 as in the K1 curves or a = -3 as in the R1 curves, selects the doubling
+    private final boolean aZero, aMinus3;
+    
     public ECOverPFArithmetics(EllipticCurve ellipticCurve) {
         super(ellipticCurve);
+        FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
+        FiniteFieldElement a = f.mod(ellipticCurve.getA());
+        this.aZero = a.signum()==0;
+        this.aMinus3 = a.equals(f.complement(f.getElementFactory().createFrom(BigInteger.valueOf(3))));
     }
     
     @Override
@@ -30,22 +38,163 @@ public class ECOverPFArithmetics extends EllipticCurveArithmetics{
         FiniteFieldElement dy = f.sub(p2.getPointY(), p1.getPointY()); //p2.y - p1.y
         FiniteFieldElement dx = f.sub(p2.getPointX(), p1.getPointX()); //p2.x - p1.x 
         FiniteFieldElement m  = f.mul(dy, f.inv(dx)); // dy/dx
-        FiniteFieldElement p3x = f.sub(f.sub(f.mul(m, m),p1.getPointX()),p2.getPointX()); // m^2 - p1.x - p2.x
-        FiniteFieldElement p3y = f.sub(f.mul(m, f.sub(p1.getPointX(), p3x)),p1.getPointY()); // m*(p1.x -p3.x) - p1.y
+        FiniteFieldElement p3x = f.mulSub(m, m, f.add(p1.getPointX(), p2.getPointX())); // m^2 - p1.x - p2.x
+        FiniteFieldElement p3y = f.mulSub(m, f.sub(p1.getPointX(), p3x), p1.getPointY()); // m*(p1.x -p3.x) - p1.y
         return EllipticCurvePoint.create(p3x, p3y);
     }
     
     @Override
     public EllipticCurvePoint doub(EllipticCurvePoint p1){
         FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
-        FiniteFieldElement dy = f.add(f.mul(f.mul(f.getElementFactory().createFrom(new BigInteger("3")),p1.getPointX()),p1.getPointX()),ellipticCurve.getA());
-        FiniteFieldElement dx = f.mul(f.getElementFactory().createFrom(new BigInteger("2")),p1.getPointY());
+        FiniteFieldElement dy = f.mulAdd(f.mulSmall(p1.getPointX(), 3), p1.getPointX(), ellipticCurve.getA()); // 3*p1.x^2 + a
+        FiniteFieldElement dx = f.mulSmall(p1.getPointY(), 2); // 2*p1.y
         FiniteFieldElement m  = f.mul(dy, f.inv(dx));
-        FiniteFieldElement p3x = f.sub(f.sub(f.mul(m, m),p1.getPointX()),p1.getPointX());
-        FiniteFieldElement p3y = f.sub(f.mul(m, f.sub(p1.getPointX(), p3x)),p1.getPointY());
+        FiniteFieldElement p3x = f.mulSub(m, m, f.mulSmall(p1.getPointX(), 2)); // m^2 - 2*p1.x
+        FiniteFieldElement p3y = f.mulSub(m, f.sub(p1.getPointX(), p3x), p1.getPointY()); // m*(p1.x -p3.x) - p1.y
         return EllipticCurvePoint.create(p3x, p3y);
     }
 
+    @Override
+    boolean doubInto(FiniteFieldElementArithmetics f, Scratch s) {
+        if(f.isZero(s.y)) return true;
+        f.sqrInto(s.t0, s.x);
+        f.mulSmallInto(s.t0, s.t0, 3);
+        f.addInto(s.t0, s.t0, s.a); // 3x^2 + a
+        f.mulSmallInto(s.t1, s.y, 2);
+        f.invInto(s.t1, s.t1);
+        f.mulInto(s.t0, s.t0, s.t1); // m = (3x^2 + a)/2y
+        f.sqrInto(s.t1, s.t0);
+        f.subInto(s.t1, s.t1, s.x);
+        f.subInto(s.t1, s.t1, s.x); // x3 = m^2 - 2x
+        f.subInto(s.t2, s.x, s.t1);
+        f.mulInto(s.t2, s.t0, s.t2);
+        f.subInto(s.y, s.t2, s.y); // y3 = m*(x - x3) - y
+        f.set(s.x, s.t1);
+        return false;
+    }
+
+    @Override
+    boolean addInto(FiniteFieldElementArithmetics f, Scratch s) {
+        if(f.isEqual(s.x, s.px)) return f.isEqual(s.y, s.py) ? doubInto(f, s) : true;
+        f.subInto(s.t0, s.py, s.y);
+        f.subInto(s.t1, s.px, s.x);
+        f.invInto(s.t1, s.t1);
+        f.mulInto(s.t0, s.t0, s.t1); // m = dy/dx
+        f.sqrInto(s.t1, s.t0);
+        f.subInto(s.t1, s.t1, s.x);
+        f.subInto(s.t1, s.t1, s.px); // x3 = m^2 - x - px
+        f.subInto(s.t2, s.x, s.t1);
+        f.mulInto(s.t2, s.t0, s.t2);
+        f.subInto(s.y, s.t2, s.y); // y3 = m*(x - x3) - y
+        f.set(s.x, s.t1);
+        return false;
+    }
+
+    /**
+     * Jacobian doubling, (X, Y, Z) is the point (X/Z^2, Y/Z^3),
+     * M = 3X^2 + aZ^4, S = 4XY^2, X3 = M^2 - 2S, Y3 = M(S - X3) - 8Y^4, Z3 = 2YZ,
+     * M = 3X^2 for a = 0 and M = 3(X - Z^2)(X + Z^2) for a = -3
+     */
+    @Override
+    boolean doubProjectiveInto(FiniteFieldElementArithmetics f, Scratch s) {
+        if(f.isZero(s.y)) return true;
+        if(aZero){
+            f.sqrInto(s.t0, s.x);
+            f.mulSmallInto(s.t0, s.t0, 3); // M = 3X^2
+        }else if(aMinus3){
+            f.sqrInto(s.t3, s.z);
+            f.subInto(s.t0, s.x, s.t3);
+            f.addInto(s.t3, s.x, s.t3);
+            f.mulInto(s.t0, s.t0, s.t3);
+            f.mulSmallInto(s.t0, s.t0, 3); // M = 3(X - Z^2)(X + Z^2)
+        }else{
+            f.sqrInto(s.t3, s.z);
+            f.sqrInto(s.t3, s.t3);
+            f.mulInto(s.t3, s.t3, s.a); // aZ^4
+            f.sqrInto(s.t0, s.x);
+            f.mulSmallInto(s.t0, s.t0, 3);
+            f.addInto(s.t0, s.t0, s.t3); // M
+        }
+        f.mulInto(s.z, s.y, s.z);
+        f.addInto(s.z, s.z, s.z); // Z3 = 2YZ
+        f.sqrInto(s.t1, s.y);
+        f.sqrInto(s.t2, s.t1); // Y^4
+        f.mulInto(s.t1, s.x, s.t1);
+        f.addInto(s.t1, s.t1, s.t1);
+        f.addInto(s.t1, s.t1, s.t1); // S
+        f.sqrInto(s.x, s.t0);
+        f.subInto(s.x, s.x, s.t1);
+        f.subInto(s.x, s.x, s.t1); // X3 = M^2 - 2S
+        f.subInto(s.t1, s.t1, s.x);
+        f.mulInto(s.t1, s.t0, s.t1);
+        f.addInto(s.t2, s.t2, s.t2);
+        f.addInto(s.t2, s.t2, s.t2);
+        f.addInto(s.t2, s.t2, s.t2);
+        f.subInto(s.y, s.t1, s.t2); // Y3 = M(S - X3) - 8Y^4
+        return false;
+    }
+
+    /**
+     * mixed Jacobian-affine addition, H = px*Z^2 - X, r = py*Z^3 - Y,
+     * X3 = r^2 - H^3 - 2XH^2, Y3 = r(XH^2 - X3) - YH^3, Z3 = ZH
+     */
+    @Override
+    boolean addProjectiveInto(FiniteFieldElementArithmetics f, Scratch s) {
+        f.sqrInto(s.t0, s.z);
+        f.mulInto(s.t1, s.px, s.t0);
+        f.subInto(s.t1, s.t1, s.x); // H
+        f.mulInto(s.t0, s.t0, s.z);
+        f.mulInto(s.t0, s.t0, s.py);
+        f.subInto(s.t0, s.t0, s.y); // r
+        if(f.isZero(s.t1)) return f.isZero(s.t0) ? doubProjectiveInto(f, s) : true;
+        f.mulInto(s.z, s.z, s.t1); // Z3 = ZH
+        f.sqrInto(s.t2, s.t1);
+        f.mulInto(s.t1, s.t1, s.t2); // H^3
+        f.mulInto(s.t2, s.x, s.t2); // XH^2
+        f.sqrInto(s.x, s.t0);
+        f.subInto(s.x, s.x, s.t1);
+        f.subInto(s.x, s.x, s.t2);
+        f.subInto(s.x, s.x, s.t2); // X3
+        f.subInto(s.t2, s.t2, s.x);
+        f.mulInto(s.t2, s.t0, s.t2);
+        f.mulInto(s.t1, s.y, s.t1);
+        f.subInto(s.y, s.t2, s.t1); // Y3
+        return false;
+    }
+
+    @Override
+    void toAffine(FiniteFieldElementArithmetics f, Scratch s, MutableFiniteFieldElement zInv) {
+        f.sqrInto(s.t1, zInv);
+        f.mulInto(s.x, s.x, s.t1);
+        f.mulInto(s.t1, s.t1, zInv);
+        f.mulInto(s.y, s.y, s.t1);
+        f.set(s.z, s.one);
+    }
+
+    /**
+     * the chain runs on the isomorphic curve with the coefficients a*Z^4 and b*Z^6, where 2P = (X, Y, Z)
+     * is affine and P is (x*Z^2, y*Z^3), the mixed addition does not depend on the coefficients,
+     * so the only inversion is the one of the table, the chain never doubles on that curve
+     * since (2j+1)P = 2P needs (2j-1)P = O, which stops the chain before
+     * @see "P. Longa, A. Miri, New Composite Operations and Precomputation Scheme for Elliptic Curve Cryptosystems over Prime Fields"
+     */
+    @Override
+    void startChain(FiniteFieldElementArithmetics f, Scratch s, MutableFiniteFieldElement x1, MutableFiniteFieldElement y1, MutableFiniteFieldElement scale) {
+        f.set(s.px, s.x);
+        f.set(s.py, s.y);
+        f.set(scale, s.z);
+        f.sqrInto(s.t0, scale);
+        f.mulInto(s.x, x1, s.t0);
+        f.mulInto(s.t0, s.t0, scale);
+        f.mulInto(s.y, y1, s.t0);
+        f.set(s.z, s.one);
+    }
+
+    @Override
+    void negateInto(FiniteFieldElementArithmetics f, MutableFiniteFieldElement x, MutableFiniteFieldElement y) {
+        f.complementInto(y, y);
+    }
+
     /**
      * check if y^2 = x^3 + ax +b mod p
      * @param p1
@@ -54,10 +203,9 @@ public class ECOverPFArithmetics extends EllipticCurveArithmetics{
     @Override
     public boolean belongsTo(EllipticCurvePoint p1) {
         FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
-        FiniteFieldElement y2 = f.mul(p1.getPointY(), p1.getPointY()); //y^2
-        FiniteFieldElement x3 = f.mul(f.mul(p1.getPointX(), p1.getPointX()),p1.getPointX()); // x^3
-        FiniteFieldElement ax = f.mul(p1.getPointX(), getEllipticCurve().getA()); // ax
-        FiniteFieldElement res = f.add(f.add(x3, ax),getEllipticCurve().getB()); // x^3+ax+b
+        FiniteFieldElement y2 = f.sqr(p1.getPointY()); //y^2
+        FiniteFieldElement x2a = f.add(f.sqr(p1.getPointX()), getEllipticCurve().getA()); // x^2+a
+        FiniteFieldElement res = f.mulAdd(x2a, p1.getPointX(), getEllipticCurve().getB()); // (x^2+a)x+b
         return y2.equals(res);
     }
     
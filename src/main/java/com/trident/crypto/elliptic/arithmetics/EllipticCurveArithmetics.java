@@ -19,6 +19,9 @@ import com.trident.crypto.elliptic.EllipticCurve;
 import com.trident.crypto.elliptic.EllipticCurveOperator;
 import com.trident.crypto.elliptic.EllipticCurvePoint;
 import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.MutableFiniteFieldElement;
 import java.math.BigInteger;
 
 /**
@@ -32,10 +35,174 @@ public abstract class EllipticCurveArithmetics implements EllipticCurveOperator{
     //olliptic curve over which this arithmetics is defined
     protected final EllipticCurve ellipticCurve;
     
+    // elements used by the scalar multiplication, allocated once per thread
+    final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>(){
+        @Override
+        protected Scratch initialValue() {
+            return new Scratch(ellipticCurve.getFieldArithmetics(), ellipticCurve.getA(), ellipticCurve.getB());
+        }
+    };
+    
+    // widest NAF of the scalar, the size of the table in the scratch
+    private static final int MAX_WINDOW = 8;
+    
+    // width of the NAF of the scalar
+    private volatile int window;
+    
+    // comb of the generator G, built on the first multiplication of G
+    private volatile Comb comb;
+    
     public EllipticCurveArithmetics(EllipticCurve ellipticCurve) {
         this.ellipticCurve = ellipticCurve;
+        int bits = ellipticCurve.getN().bitLength();
+        this.window = bits<=192 ? 4 : bits<=384 ? 5 : 6;
+    }
+    
+    /**
+     * sets the width w of the NAF used by the scalar multiplication, the table
+     * holds 2^(w-2) odd multiples of the point, the default is 4, 5 or 6 by the size of the curve order
+     * @param width - from 2 to 8
+     */
+    public void setWindow(int width){
+        if(width<2 || width>MAX_WINDOW) throw new RuntimeException("window should be from 2 to "+MAX_WINDOW);
+        this.window = width;
+    }
+    
+    public int getWindow(){
+        return window;
+    }
+    
+    /**
+     * mutable coordinates and temporaries of the scalar multiplication
+     */
+    static final class Scratch{
+        final MutableFiniteFieldElement x, y, z; // accumulated point, z is used by the projective coordinates
+        final MutableFiniteFieldElement px, py; // added point, affine
+        final MutableFiniteFieldElement a, b; // coefficients of the curve
+        final MutableFiniteFieldElement one;
+        final MutableFiniteFieldElement t0, t1, t2, t3;
+        // odd multiples of the point and the prefix products of their z for the widest window
+        final MutableFiniteFieldElement[] tx, ty, tz, acc;
+        final MutableFiniteFieldElement scale, inv, zInv; // temporaries of the table
+        int[] digits = new int[0]; // NAF of the scalar, grows with the longest one
+        
+        Scratch(FiniteFieldElementArithmetics f, FiniteFieldElement a, FiniteFieldElement b){
+            this.x = f.newMutableElement();
+            this.y = f.newMutableElement();
+            this.z = f.newMutableElement();
+            this.px = f.newMutableElement();
+            this.py = f.newMutableElement();
+            this.a = f.newMutableElement();
+            this.b = f.newMutableElement();
+            this.one = f.newMutableElement();
+            this.t0 = f.newMutableElement();
+            this.t1 = f.newMutableElement();
+            this.t2 = f.newMutableElement();
+            this.t3 = f.newMutableElement();
+            int count = 1<<(MAX_WINDOW-2);
+            this.tx = new MutableFiniteFieldElement[count];
+            this.ty = new MutableFiniteFieldElement[count];
+            this.tz = new MutableFiniteFieldElement[count];
+            this.acc = new MutableFiniteFieldElement[count];
+            for(int j=0;j<count;j++){
+                tx[j] = f.newMutableElement();
+                ty[j] = f.newMutableElement();
+                tz[j] = f.newMutableElement();
+                acc[j] = f.newMutableElement();
+            }
+            this.scale = f.newMutableElement();
+            this.inv = f.newMutableElement();
+            this.zInv = f.newMutableElement();
+            f.load(this.a, a);
+            f.load(this.b, b);
+            f.load(this.one, f.getElementFactory().createFrom(BigInteger.ONE));
+        }
+    }
+    
+    /**
+     * (x, y) = 2*(x, y) in place
+     * @param f
+     * @param s
+     * @return true if the result is the point on infinity
+     */
+    abstract boolean doubInto(FiniteFieldElementArithmetics f, Scratch s);
+    
+    /**
+     * (x, y) = (x, y) + (px, py) in place
+     * @param f
+     * @param s
+     * @return true if the result is the point on infinity
+     */
+    abstract boolean addInto(FiniteFieldElementArithmetics f, Scratch s);
+    
+    /**
+     * Lim-Lee comb of the generator G with w teeth d bits apart, T[v] = sum of 2^(j*d)*G
+     * over the bits j of v, the affine points are only read once the comb is built
+     * and are shared by all threads
+     */
+    static final class Comb{
+        static final Comb NONE = new Comb(0, 0, null, null); // G of small order, the comb is not used
+        
+        final int teeth, spacing;
+        final MutableFiniteFieldElement[] x, y; // T[v] for 0 < v < 2^teeth
+        
+        Comb(int teeth, int spacing, MutableFiniteFieldElement[] x, MutableFiniteFieldElement[] y){
+            this.teeth = teeth;
+            this.spacing = spacing;
+            this.x = x;
+            this.y = y;
+        }
+    }
+    
+    /**
+     * (x, y, z) = 2*(x, y, z) in the projective coordinates of the curve,
+     * the default is the affine doubling leaving z = 1
+     * @param f
+     * @param s
+     * @return true if the result is the point on infinity
+     */
+    boolean doubProjectiveInto(FiniteFieldElementArithmetics f, Scratch s){
+        return doubInto(f, s);
+    }
+    
+    /**
+     * (x, y, z) = (x, y, z) + (px, py) in the projective coordinates of the curve,
+     * the added point is affine, the default is the affine addition leaving z = 1
+     * @param f
+     * @param s
+     * @return true if the result is the point on infinity
+     */
+    boolean addProjectiveInto(FiniteFieldElementArithmetics f, Scratch s){
+        return addInto(f, s);
     }
     
+    /**
+     * (x, y) = affine coordinates of (x, y, z), the point is not the point on infinity
+     * @param f
+     * @param s
+     */
+    void toAffine(FiniteFieldElementArithmetics f, Scratch s){
+        f.invInto(s.t3, s.z);
+        toAffine(f, s, s.t3);
+    }
+    
+    /**
+     * (x, y) = affine coordinates of (x, y, z), the default is for the affine coordinates with z = 1
+     * @param f
+     * @param s
+     * @param zInv - 1/z, not one of the temporaries t0, t1, t2
+     */
+    void toAffine(FiniteFieldElementArithmetics f, Scratch s, MutableFiniteFieldElement zInv){
+    }
+    
+    /**
+     * (x, y) = -(x, y) in place, affine
+     * @param f
+     * @param x
+     * @param y
+     */
+    abstract void negateInto(FiniteFieldElementArithmetics f, MutableFiniteFieldElement x, MutableFiniteFieldElement y);
+    
     @Override
     public EllipticCurve getEllipticCurve() {
         return ellipticCurve;
@@ -45,14 +212,18 @@ public abstract class EllipticCurveArithmetics implements EllipticCurveOperator{
      * static factory method to create the arithmetics over the elliptic curve 
      * defined by the standard specification
      * 
-     * should prefer this instead of constructor call
+     * should prefer this instead of constructor call, the K1 binary curves
+     * get the tau-adic NAF scalar multiplication of KoblitzCurveArithmetics,
+     * the other binary curves with cofactor 2 the halve-and-add of PointHalvingArithmetics
      * @param spec
      * @return 
      */
     public static EllipticCurveOperator createFrom(SECP spec){
-        return new PointAtInfinityArithmeticsDecorator(spec.getType()?
-                new ECOverPFArithmetics(EllipticCurve.createFrom(spec)):
-                new ECOverBEFArithmetics(EllipticCurve.createFrom(spec)));
+        EllipticCurve curve = EllipticCurve.createFrom(spec);
+        if(spec.getType()) return new PointAtInfinityArithmeticsDecorator(new ECOverPFArithmetics(curve));
+        if(KoblitzCurveArithmetics.isKoblitz(curve)) return new PointAtInfinityArithmeticsDecorator(new KoblitzCurveArithmetics(curve));
+        if(PointHalvingArithmetics.isHalvable(curve)) return new PointAtInfinityArithmeticsDecorator(new PointHalvingArithmetics(curve));
+        return new PointAtInfinityArithmeticsDecorator(new ECOverBEFArithmetics(curve));
     }
     
     /**
@@ -64,6 +235,15 @@ public abstract class EllipticCurveArithmetics implements EllipticCurveOperator{
         return new StringBuilder().append("Elliptic curve arithmetics defined over:\n").append(getEllipticCurve()).toString();
     }
        
+    /**
+     * left-to-right width-w NAF multiplication in the projective coordinates of the curve,
+     * the odd multiples P, 3P, ..., (2^(w-1) - 1)P are brought to affine at once
+     * for the mixed additions, the negative digits add the negated points,
+     * the multiples of the generator G up to the length of n go by the comb of G
+     * @param times
+     * @param p1
+     * @return 
+     */
     @Override
     public EllipticCurvePoint mul(BigInteger times, EllipticCurvePoint p1){
         if(times.signum()==-1) throw new RuntimeException("negative times");
@@ -72,23 +252,282 @@ public abstract class EllipticCurveArithmetics implements EllipticCurveOperator{
         if(times.compareTo(BigInteger.ONE) == 0)
             return p1;
         
-        EllipticCurvePoint temp = EllipticCurvePoint.create(p1.getPointX(), p1.getPointY());
-        times = times.subtract(BigInteger.ONE);
-        while (times.compareTo(BigInteger.ZERO)>0){
-            if (times.testBit(0)){
-                if (temp.equals(p1))
-                    temp = doub(temp);
-                else{
-                    if(temp.equals(negate(p1))) // if adding p + (-p)
-                        temp = EllipticCurvePoint.POINT_ON_INFINITY;
-                    else
-                        temp = add(temp,p1);
-                }   
-                times = times.subtract(BigInteger.ONE);
+        FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
+        Scratch s = scratch.get();
+        EllipticCurvePoint r = mulByComb(times, p1);
+        if(r!=null) return r;
+        int width = window;
+        // the table does not pay off for the short scalars
+        if(times.bitLength()<8*width) return mulBinary(f, s, times, p1);
+        if(!precompute(f, s, p1, 1<<(width-2))) return mulBinary(f, s, times, p1); // P of small order
+        
+        MutableFiniteFieldElement[] tx = s.tx, ty = s.ty;
+        if(s.digits.length<times.bitLength()+width) s.digits = new int[times.bitLength()+width];
+        int[] digits = s.digits;
+        boolean infinity = true;
+        for(int i=naf(times, width, digits)-1;i>=0;i--){
+            if(!infinity) infinity = doubProjectiveInto(f, s);
+            int d = digits[i];
+            if(d==0) continue;
+            f.set(s.px, tx[Math.abs(d)>>>1]);
+            f.set(s.py, ty[Math.abs(d)>>>1]);
+            if(d<0) negateInto(f, s.px, s.py);
+            if(infinity){
+                f.set(s.x, s.px);
+                f.set(s.y, s.py);
+                f.set(s.z, s.one);
+                infinity = false;
+            }else infinity = addProjectiveInto(f, s);
+        }
+        if(infinity) return EllipticCurvePoint.POINT_ON_INFINITY;
+        toAffine(f, s);
+        return EllipticCurvePoint.create(f.store(s.x), f.store(s.y));
+    }
+    
+    /**
+     * left-to-right double-and-add over the mutable projective coordinates,
+     * the single conversion to affine at the end
+     */
+    private EllipticCurvePoint mulBinary(FiniteFieldElementArithmetics f, Scratch s, BigInteger times, EllipticCurvePoint p1){
+        f.load(s.px, p1.getPointX());
+        f.load(s.py, p1.getPointY());
+        f.set(s.x, s.px);
+        f.set(s.y, s.py);
+        f.set(s.z, s.one);
+        boolean infinity = false;
+        for(int i=times.bitLength()-2;i>=0;i--){
+            if(!infinity) infinity = doubProjectiveInto(f, s);
+            if(times.testBit(i)){
+                if(infinity){
+                    f.set(s.x, s.px);
+                    f.set(s.y, s.py);
+                    f.set(s.z, s.one);
+                    infinity = false;
+                }else infinity = addProjectiveInto(f, s);
+            }
+        }
+        if(infinity) return EllipticCurvePoint.POINT_ON_INFINITY;
+        toAffine(f, s);
+        return EllipticCurvePoint.create(f.store(s.x), f.store(s.y));
+    }
+    
+    /**
+     * (x, y, z) = P and (px, py) = 2P for the mixed additions of the chain of the odd multiples,
+     * the default brings 2P to affine
+     * @param f
+     * @param s - (x, y, z) holds 2P on the call
+     * @param x1 - affine P
+     * @param y1 - affine P
+     * @param scale - receives the factor of z of the chain points back to the coordinates of the curve
+     */
+    void startChain(FiniteFieldElementArithmetics f, Scratch s, MutableFiniteFieldElement x1, MutableFiniteFieldElement y1, MutableFiniteFieldElement scale){
+        toAffine(f, s);
+        f.set(s.px, s.x);
+        f.set(s.py, s.y);
+        f.set(s.x, x1);
+        f.set(s.y, y1);
+        f.set(s.z, s.one);
+        f.set(scale, s.one);
+    }
+    
+    /**
+     * (tx[j], ty[j]) = (2j+1)*P in affine in the table of the scratch, the chain P + 2P + 2P ... is projective
+     * and is converted by Montgomery's trick with one inversion
+     * @return false if one of the multiples is the point on infinity
+     */
+    private boolean precompute(FiniteFieldElementArithmetics f, Scratch s, EllipticCurvePoint p1, int count){
+        MutableFiniteFieldElement[] tx = s.tx, ty = s.ty, tz = s.tz;
+        f.load(tx[0], p1.getPointX());
+        f.load(ty[0], p1.getPointY());
+        f.set(tz[0], s.one);
+        if(count==1) return true;
+        f.set(s.x, tx[0]);
+        f.set(s.y, ty[0]);
+        f.set(s.z, s.one);
+        if(doubProjectiveInto(f, s)) return false;
+        startChain(f, s, tx[0], ty[0], s.scale);
+        for(int j=1;j<count;j++){
+            if(addProjectiveInto(f, s)) return false;
+            f.set(tx[j], s.x);
+            f.set(ty[j], s.y);
+            f.mulInto(tz[j], s.z, s.scale);
+        }
+        normalize(f, s, tx, ty, tz, s.acc, 1, count);
+        return true;
+    }
+    
+    /**
+     * @param times
+     * @param p1
+     * @return times*p1 by the comb of G, null if p1 is not G or the scalar is longer than the comb
+     */
+    EllipticCurvePoint mulByComb(BigInteger times, EllipticCurvePoint p1){
+        if(!p1.equals(ellipticCurve.getG())) return null;
+        FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
+        Scratch s = scratch.get();
+        Comb c = comb(f, s);
+        if(c==Comb.NONE || times.bitLength()>c.teeth*c.spacing) return null;
+        return mulComb(f, s, c, times);
+    }
+    
+    /**
+     * k*G by the comb, d doublings and at most d additions
+     */
+    private EllipticCurvePoint mulComb(FiniteFieldElementArithmetics f, Scratch s, Comb c, BigInteger times){
+        boolean infinity = true;
+        for(int i=c.spacing-1;i>=0;i--){
+            if(!infinity) infinity = doubProjectiveInto(f, s);
+            int v = 0;
+            for(int j=c.teeth-1;j>=0;j--) v = (v<<1) | (times.testBit(j*c.spacing+i) ? 1 : 0);
+            if(v==0) continue;
+            f.set(s.px, c.x[v]);
+            f.set(s.py, c.y[v]);
+            if(infinity){
+                f.set(s.x, s.px);
+                f.set(s.y, s.py);
+                f.set(s.z, s.one);
+                infinity = false;
+            }else infinity = addProjectiveInto(f, s);
+        }
+        if(infinity) return EllipticCurvePoint.POINT_ON_INFINITY;
+        toAffine(f, s);
+        return EllipticCurvePoint.create(f.store(s.x), f.store(s.y));
+    }
+    
+    /**
+     * @return the comb of G, built on the first call, the concurrent calls may build it twice
+     */
+    private Comb comb(FiniteFieldElementArithmetics f, Scratch s){
+        Comb c = comb;
+        if(c==null){
+            c = buildComb(f, s);
+            comb = c;
+        }
+        return c;
+    }
+    
+    /**
+     * B_j = 2^(j*d)*G by the doublings, T[v] = T[v - 2^j] + B_j for the top bit j of v,
+     * the table is brought to affine with one inversion
+     * @return Comb.NONE if one of the points is the point on infinity
+     */
+    private Comb buildComb(FiniteFieldElementArithmetics f, Scratch s){
+        int bits = ellipticCurve.getN().bitLength();
+        int teeth = bits<=256 ? 6 : 7;
+        int spacing = (bits+teeth-1)/teeth;
+        MutableFiniteFieldElement[] bx = new MutableFiniteFieldElement[teeth];
+        MutableFiniteFieldElement[] by = new MutableFiniteFieldElement[teeth];
+        for(int j=0;j<teeth;j++){
+            bx[j] = f.newMutableElement();
+            by[j] = f.newMutableElement();
+            if(j==0){
+                f.load(bx[j], ellipticCurve.getG().getPointX());
+                f.load(by[j], ellipticCurve.getG().getPointY());
+                continue;
             }
-            times = times.shiftRight(1);
-            p1 = doub(p1);
+            f.set(s.x, bx[j-1]);
+            f.set(s.y, by[j-1]);
+            f.set(s.z, s.one);
+            for(int i=0;i<spacing;i++) if(doubProjectiveInto(f, s)) return Comb.NONE;
+            toAffine(f, s);
+            f.set(bx[j], s.x);
+            f.set(by[j], s.y);
+        }
+        int size = 1<<teeth;
+        MutableFiniteFieldElement[] tx = new MutableFiniteFieldElement[size];
+        MutableFiniteFieldElement[] ty = new MutableFiniteFieldElement[size];
+        MutableFiniteFieldElement[] tz = new MutableFiniteFieldElement[size];
+        for(int v=1;v<size;v++){
+            int j = 31-Integer.numberOfLeadingZeros(v);
+            int rest = v^(1<<j);
+            tx[v] = f.newMutableElement();
+            ty[v] = f.newMutableElement();
+            tz[v] = f.newMutableElement();
+            if(rest==0){
+                f.set(tx[v], bx[j]);
+                f.set(ty[v], by[j]);
+                f.set(tz[v], s.one);
+                continue;
+            }
+            f.set(s.x, tx[rest]);
+            f.set(s.y, ty[rest]);
+            f.set(s.z, tz[rest]);
+            f.set(s.px, bx[j]);
+            f.set(s.py, by[j]);
+            if(addProjectiveInto(f, s)) return Comb.NONE;
+            f.set(tx[v], s.x);
+            f.set(ty[v], s.y);
+            f.set(tz[v], s.z);
+        }
+        MutableFiniteFieldElement[] acc = new MutableFiniteFieldElement[size];
+        for(int v=1;v<size;v++) acc[v] = f.newMutableElement();
+        normalize(f, s, tx, ty, tz, acc, 1, size);
+        return new Comb(teeth, spacing, tx, ty);
+    }
+    
+    /**
+     * (tx[j], ty[j]) = affine coordinates of (tx[j], ty[j], tz[j]) for j from the index up to the count,
+     * by Montgomery's trick with one inversion
+     * @param acc - receives the prefix products of z
+     */
+    private void normalize(FiniteFieldElementArithmetics f, Scratch s, MutableFiniteFieldElement[] tx, MutableFiniteFieldElement[] ty, MutableFiniteFieldElement[] tz, MutableFiniteFieldElement[] acc, int from, int count){
+        if(from>=count) return;
+        // prefix products of z, then 1/z_j from the inverse of the last one
+        MutableFiniteFieldElement inv = s.inv, zInv = s.zInv;
+        f.set(acc[from], tz[from]);
+        for(int j=from+1;j<count;j++) f.mulInto(acc[j], acc[j-1], tz[j]);
+        f.invInto(inv, acc[count-1]);
+        for(int j=count-1;j>=from;j--){
+            if(j>from){
+                f.mulInto(zInv, inv, acc[j-1]);
+                f.mulInto(inv, inv, tz[j]);
+            }else f.set(zInv, inv);
+            f.set(s.x, tx[j]);
+            f.set(s.y, ty[j]);
+            f.set(s.z, tz[j]);
+            toAffine(f, s, zInv);
+            f.set(tx[j], s.x);
+            f.set(ty[j], s.y);
+        }
+    }
+    
+    /**
+     * width-w NAF of positive k, the non zero digits are odd, less than 2^(w-1)
+     * in absolute value and are followed by at least w-1 zeros
+     * @return digits, least significant first
+     */
+    static int[] naf(BigInteger k, int w){
+        int[] digits = new int[k.bitLength()+w];
+        int count = naf(k, w, digits);
+        int[] r = new int[count];
+        System.arraycopy(digits, 0, r, 0, count);
+        return r;
+    }
+    
+    /**
+     * width-w NAF of positive k read by the bits of k, so nothing is allocated,
+     * c is the carry of the subtracted negative digits into the remaining bits
+     * @param digits - receives the digits, least significant first, at least bitLength(k) + w long
+     * @return count of the digits up to the last non zero one
+     */
+    static int naf(BigInteger k, int w, int[] digits){
+        int bits = k.bitLength();
+        int count = 0;
+        int c = 0;
+        for(int i=0;i<bits || c!=0;){
+            if(k.testBit(i)==(c==0)){
+                // odd, v = w bits of the remaining value from i
+                int v = c;
+                for(int j=0;j<w;j++) if(k.testBit(i+j)) v += 1<<j;
+                int d = v&((1<<w)-1);
+                if(d>=1<<(w-1)) d -= 1<<w;
+                c = (v-d)>>>w;
+                digits[i] = d;
+                for(int j=1;j<w;j++) digits[i+j] = 0;
+                count = i+1;
+                i += w;
+            }else digits[i++] = 0; // even, the bit equals the carry and the carry stays
         }
-        return temp;
+        return count;
     }
 }
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.elliptic.arithmetics;
+
+import com.trident.crypto.elliptic.EllipticCurve;
+import com.trident.crypto.elliptic.EllipticCurvePoint;
+import com.trident.crypto.field.BinaryExtensionField;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.MutableFiniteFieldElement;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * arithmetics over the Koblitz curve y^2 +xy = x^3 +ax^2 + 1, a = 0 or 1,
+ * where the Frobenius map tau(x, y) = (x^2, y^2) satisfies
+ * tau^2 - mu*tau + 2 = 0 with mu = (-1)^(1-a)
+ *
+ * the scalar multiplication reduces k modulo tau^m - 1 in Z[tau], recodes
+ * the remainder into the width-w tau-adic NAF and evaluates it with squarings
+ * in place of the point doublings, tau^m is the identity on all points of
+ * E(GF(2^m)), so the result is k*P for the points out of the subgroup
+ * generated by G as well, unlike the reduction modulo delta = (tau^m - 1)/(tau - 1)
+ * @see "J. Solinas, Efficient Arithmetic on Koblitz Curves"
+ * @author trident
+ */
+public class KoblitzCurveArithmetics extends ECOverBEFArithmetics{
+
+    private final int mu; // trace of the Frobenius map
+    private final int width; // width of the tau-adic NAF
+    private final int tw; // tau modulo 2^w seen as integer, i.e. 2*U(w-1)/U(w)
+    private final BigInteger s0, s1; // tau^m - 1 = s0 + s1*tau
+    private final BigInteger[] beta, gamma; // alpha(u) = beta + gamma*tau = u mod tau^w for odd u < 2^(w-1)
+    private final int[][] alphas; // tau-adic NAF of alpha(u), least significant digit first
+
+    public KoblitzCurveArithmetics(EllipticCurve ellipticCurve) {
+        super(ellipticCurve);
+        if(!isKoblitz(ellipticCurve)) throw new RuntimeException("not a Koblitz curve");
+        int m = ((BinaryExtensionField)ellipticCurve.getFieldArithmetics().getField()).getOrderQ();
+        this.mu = ellipticCurve.getA().signum()==0 ? -1 : 1;
+        BigInteger[] u = lucas(m, mu);
+        // tau^m - 1 = -2*U(m-1) - 1 + U(m)*tau
+        this.s0 = u[0].shiftLeft(1).negate().subtract(BigInteger.ONE);
+        this.s1 = u[1];
+        this.width = m>400 ? 6 : 5;
+        u = lucas(width, mu);
+        BigInteger modulus = BigInteger.ONE.shiftLeft(width);
+        this.tw = u[0].shiftLeft(1).multiply(u[1].modInverse(modulus)).mod(modulus).intValue();
+
+        // alpha(u) = u mod tau^w, tau^w = -2*U(w-1) + U(w)*tau
+        int count = 1<<(width-2);
+        this.beta = new BigInteger[count];
+        this.gamma = new BigInteger[count];
+        this.alphas = new int[count][];
+        BigInteger[] one0 = {BigInteger.ONE}; // alpha(1) = 1 of the width 2
+        BigInteger[] one1 = {BigInteger.ZERO};
+        for(int i=0;i<count;i++){
+            BigInteger[] alpha = mod(BigInteger.valueOf(2*i+1), BigInteger.ZERO, u[0].shiftLeft(1).negate(), u[1], mu);
+            beta[i] = alpha[0];
+            gamma[i] = alpha[1];
+            alphas[i] = recode(alpha[0], alpha[1], 2, 2, one0, one1, mu);
+        }
+    }
+
+    /**
+     * @param ellipticCurve
+     * @return true if the curve is defined over GF(2^m) with b = 1 and a = 0 or 1,
+     * and its order n is N(delta), i.e. G generates the subgroup of the large prime order
+     */
+    static boolean isKoblitz(EllipticCurve ellipticCurve){
+        if(!(ellipticCurve.getFieldArithmetics().getField() instanceof BinaryExtensionField)) return false;
+        if(!ellipticCurve.getB().equals(BigInteger.ONE)) return false;
+        if(ellipticCurve.getA().bitLength()>1) return false;
+        int m = ((BinaryExtensionField)ellipticCurve.getFieldArithmetics().getField()).getOrderQ();
+        int mu = ellipticCurve.getA().signum()==0 ? -1 : 1;
+        BigInteger[] delta = delta(m, mu);
+        return norm(delta[0], delta[1], mu).equals(ellipticCurve.getN());
+    }
+
+    @Override
+    public EllipticCurvePoint mul(BigInteger times, EllipticCurvePoint p1){
+        if(times.signum()==-1) throw new RuntimeException("negative times");
+        if(times.compareTo(BigInteger.ZERO) == 0)
+            throw new RuntimeException("multiply to zero");
+        if(times.compareTo(BigInteger.ONE) == 0)
+            return p1;
+
+        EllipticCurvePoint r = mulByComb(times, p1);
+        if(r!=null) return r; // the comb of G is cheaper than the expansion
+        BigInteger[] rho = mod(times, BigInteger.ZERO, s0, s1, mu);
+        int[] digits = recode(rho[0], rho[1], width, tw, beta, gamma, mu);
+        if(digits.length==0) return EllipticCurvePoint.POINT_ON_INFINITY;
+
+        FiniteFieldElementArithmetics f = ellipticCurve.getFieldArithmetics();
+        Scratch s = scratch.get();
+        MutableFiniteFieldElement[] px = {f.newMutableElement()};
+        MutableFiniteFieldElement[] py = {f.newMutableElement()};
+        f.load(px[0], p1.getPointX());
+        f.load(py[0], p1.getPointY());
+
+        // alpha(u)*P from the short expansions of alpha(u)
+        MutableFiniteFieldElement[] tx = new MutableFiniteFieldElement[alphas.length];
+        MutableFiniteFieldElement[] ty = new MutableFiniteFieldElement[alphas.length];
+        for(int i=0;i<alphas.length;i++){
+            // P of small order out of the subgroup
+            if(evaluate(f, s, alphas[i], px, py)) return super.mul(times, p1);
+            toAffine(f, s);
+            tx[i] = f.newMutableElement();
+            ty[i] = f.newMutableElement();
+            f.set(tx[i], s.x);
+            f.set(ty[i], s.y);
+        }
+
+        if(evaluate(f, s, digits, tx, ty)) return EllipticCurvePoint.POINT_ON_INFINITY;
+        toAffine(f, s);
+        return EllipticCurvePoint.create(f.store(s.x), f.store(s.y));
+    }
+
+    /**
+     * (x, y, z) = sum of digits[i]*tau^i*P, left-to-right in the projective coordinates,
+     * the Frobenius map squares all three of them
+     * @param f
+     * @param s
+     * @param digits - zero or odd u, the point |u|*P is (tx[|u|/2], ty[|u|/2])
+     * @param tx
+     * @param ty
+     * @return true if the result is the point on infinity
+     */
+    private boolean evaluate(FiniteFieldElementArithmetics f, Scratch s, int[] digits, MutableFiniteFieldElement[] tx, MutableFiniteFieldElement[] ty){
+        boolean infinity = true;
+        for(int i=digits.length-1;i>=0;i--){
+            if(!infinity){
+                f.sqrInto(s.x, s.x);
+                f.sqrInto(s.y, s.y);
+                f.sqrInto(s.z, s.z);
+            }
+            int u = digits[i];
+            if(u==0) continue;
+            f.set(s.px, tx[Math.abs(u)>>>1]);
+            f.set(s.py, ty[Math.abs(u)>>>1]);
+            if(u<0) negateInto(f, s.px, s.py);
+            if(infinity){
+                f.set(s.x, s.px);
+                f.set(s.y, s.py);
+                f.set(s.z, s.one);
+                infinity = false;
+            }else infinity = addProjectiveInto(f, s);
+        }
+        return infinity;
+    }
+
+    /**
+     * width-w tau-adic NAF of r0 + r1*tau
+     * @return digits, least significant first
+     */
+    private static int[] recode(BigInteger r0, BigInteger r1, int w, int tw, BigInteger[] beta, BigInteger[] gamma, int mu){
+        int[] digits = new int[64];
+        int count = 0;
+        int mask = (1<<w)-1;
+        while(r0.signum()!=0 || r1.signum()!=0){
+            int u = 0;
+            if(r0.testBit(0)){
+                u = (r0.intValue() + r1.intValue()*tw) & mask;
+                if(u>=1<<(w-1)) u -= 1<<w;
+                if(u>0){
+                    r0 = r0.subtract(beta[u>>>1]);
+                    r1 = r1.subtract(gamma[u>>>1]);
+                }else{
+                    r0 = r0.add(beta[(-u)>>>1]);
+                    r1 = r1.add(gamma[(-u)>>>1]);
+                }
+            }
+            if(count==digits.length) digits = Arrays.copyOf(digits, 2*count);
+            digits[count++] = u;
+            // (r0 + r1*tau)/tau = r1 + mu*r0/2 - r0/2*tau
+            BigInteger h = r0.shiftRight(1);
+            r0 = mu>0 ? r1.add(h) : r1.subtract(h);
+            r1 = h.negate();
+        }
+        return Arrays.copyOf(digits, count);
+    }
+
+    /**
+     * @return delta = (tau^m - 1)/(tau - 1)
+     */
+    private static BigInteger[] delta(int m, int mu){
+        BigInteger[] u = lucas(m, mu);
+        // tau^m - 1 = -2*U(m-1) - 1 + U(m)*tau
+        BigInteger t0 = u[0].shiftLeft(1).negate().subtract(BigInteger.ONE);
+        BigInteger t1 = u[1];
+        // exact division by tau - 1
+        BigInteger[] g = multiply(t0, t1, BigInteger.valueOf(-1 + mu), BigInteger.ONE.negate(), mu);
+        BigInteger d = norm(BigInteger.ONE.negate(), BigInteger.ONE, mu);
+        return new BigInteger[]{g[0].divide(d), g[1].divide(d)};
+    }
+
+    /**
+     * U(0) = 0, U(1) = 1, U(k+1) = mu*U(k) - 2*U(k-1), so tau^k = -2*U(k-1) + U(k)*tau
+     * @return {U(k-1), U(k)}
+     */
+    private static BigInteger[] lucas(int k, int mu){
+        BigInteger u0 = BigInteger.ZERO;
+        BigInteger u1 = BigInteger.ONE;
+        for(int i=1;i<k;i++){
+            BigInteger u2 = (mu>0 ? u1 : u1.negate()).subtract(u0.shiftLeft(1));
+            u0 = u1;
+            u1 = u2;
+        }
+        return new BigInteger[]{u0, u1};
+    }
+
+    /**
+     * @return (a0 + a1*tau)*(b0 + b1*tau) with tau^2 = mu*tau - 2
+     */
+    private static BigInteger[] multiply(BigInteger a0, BigInteger a1, BigInteger b0, BigInteger b1, int mu){
+        BigInteger c = a1.multiply(b1);
+        BigInteger r0 = a0.multiply(b0).subtract(c.shiftLeft(1));
+        BigInteger r1 = a0.multiply(b1).add(a1.multiply(b0));
+        return new BigInteger[]{r0, mu>0 ? r1.add(c) : r1.subtract(c)};
+    }
+
+    /**
+     * @return N(a0 + a1*tau) = a0^2 + mu*a0*a1 + 2*a1^2
+     */
+    private static BigInteger norm(BigInteger a0, BigInteger a1, int mu){
+        BigInteger c = a0.multiply(a1);
+        BigInteger r = a0.multiply(a0).add(a1.multiply(a1).shiftLeft(1));
+        return mu>0 ? r.add(c) : r.subtract(c);
+    }
+
+    /**
+     * @return r - q*s where q is (r/s) rounded in Z[tau]
+     */
+    private static BigInteger[] mod(BigInteger r0, BigInteger r1, BigInteger s0, BigInteger s1, int mu){
+        // r/s = r*conj(s)/N(s), conj(s0 + s1*tau) = s0 + mu*s1 - s1*tau
+        BigInteger[] g = multiply(r0, r1, mu>0 ? s0.add(s1) : s0.subtract(s1), s1.negate(), mu);
+        BigInteger[] q = round(g[0], g[1], norm(s0, s1, mu), mu);
+        BigInteger[] qs = multiply(q[0], q[1], s0, s1, mu);
+        return new BigInteger[]{r0.subtract(qs[0]), r1.subtract(qs[1])};
+    }
+
+    /**
+     * rounding of g0/d + g1/d*tau to the element of Z[tau] at the norm
+     * distance below 1
+     * @param g0
+     * @param g1
+     * @param d - positive
+     * @param mu
+     * @return
+     */
+    private static BigInteger[] round(BigInteger g0, BigInteger g1, BigInteger d, int mu){
+        BigInteger d2 = d.shiftLeft(1);
+        BigInteger f0 = floor(g0.shiftLeft(1).add(d), d2);
+        BigInteger f1 = floor(g1.shiftLeft(1).add(d), d2);
+        // fractional parts scaled by d
+        BigInteger e0 = g0.subtract(f0.multiply(d));
+        BigInteger e1 = g1.subtract(f1.multiply(d));
+        BigInteger m1 = BigInteger.valueOf(mu);
+        BigInteger eta = e0.shiftLeft(1).add(e1.multiply(m1));
+        BigInteger c3 = e0.subtract(e1.multiply(m1).multiply(BigInteger.valueOf(3)));
+        BigInteger c4 = e0.add(e1.multiply(m1).shiftLeft(2));
+        int h0 = 0, h1 = 0;
+        if(eta.compareTo(d)>=0){
+            if(c3.compareTo(d.negate())<0) h1 = mu;
+            else h0 = 1;
+        }else if(c4.compareTo(d2)>=0) h1 = mu;
+        if(eta.compareTo(d.negate())<0){
+            if(c3.compareTo(d)>=0) h1 = -mu;
+            else h0 = -1;
+        }else if(c4.compareTo(d2.negate())<0) h1 = -mu;
+        return new BigInteger[]{f0.add(BigInteger.valueOf(h0)), f1.add(BigInteger.valueOf(h1))};
+    }
+
+    /**
+     * @return floor(a/b) for positive b
+     */
+    private static BigInteger floor(BigInteger a, BigInteger b){
+        BigInteger[] qr = a.divideAndRemainder(b);
+        return qr[1].signum()<0 ? qr[0].subtract(BigInteger.ONE) : qr[0];
+    }
+}
@@ -47,6 +47,28 @@ public class PointAtInfinityArithmeticsDecorator implements EllipticCurveOperato
         return arithmetics.mul(times, p1);
     }
 
+    @Override
+    public void mulAll(BigInteger[] times, EllipticCurvePoint[] points, EllipticCurvePoint[] out) {
+        if(times.length!=points.length || points.length!=out.length) throw new RuntimeException("times, points and output should have the same length");
+        int count = 0;
+        for(EllipticCurvePoint p: points) if(!p.equals(EllipticCurvePoint.POINT_ON_INFINITY)) count++;
+        if(count==points.length){
+            arithmetics.mulAll(times, points, out);
+            return;
+        }
+        BigInteger[] t = new BigInteger[count];
+        EllipticCurvePoint[] p = new EllipticCurvePoint[count];
+        for(int i=0, j=0;i<points.length;i++){
+            if(points[i].equals(EllipticCurvePoint.POINT_ON_INFINITY)) continue;
+            t[j] = times[i];
+            p[j++] = points[i];
+        }
+        arithmetics.mulAll(t, p, p);
+        for(int i=0, j=0;i<points.length;i++){
+            out[i] = points[i].equals(EllipticCurvePoint.POINT_ON_INFINITY) ? EllipticCurvePoint.POINT_ON_INFINITY : p[j++];
+        }
+    }
+
     @Override
     public EllipticCurvePoint doub(EllipticCurvePoint p1) {
         if(p1.equals(EllipticCurvePoint.POINT_ON_INFINITY)) return EllipticCurvePoint.POINT_ON_INFINITY;
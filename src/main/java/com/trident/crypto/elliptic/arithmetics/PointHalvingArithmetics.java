@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.elliptic.arithmetics;
+
+import com.trident.crypto.elliptic.EllipticCurve;
+import com.trident.crypto.elliptic.EllipticCurvePoint;
+import com.trident.crypto.field.BinaryExtensionField;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.MutableFiniteFieldElement;
+import java.math.BigInteger;
+
+/**
+ * arithmetics over the curve y^2 +xy = x^3 +ax^2 + b over GF(2^m) with odd m,
+ * Tr(a) = 1 and cofactor 2, where the scalar multiplication halves the point
+ * instead of doubling it
+ *
+ * the halving of Q = (u, v) in the lambda-representation (x, x + y/x) takes
+ * the half-trace solving l^2 + l = u + a, one multiplication and one square root,
+ * the scalar is taken as k*2^(t-1) mod n, which holds for the points of
+ * the subgroup of odd order n, i.e. the one generated by G, these are the points
+ * with Tr(x) = Tr(a) = 1, the others go by the doublings
+ * @see "E. Knudsen, Elliptic Scalar Multiplication Using Point Halving"
+ * @author trident
+ */
+public class PointHalvingArithmetics extends ECOverBEFArithmetics{
+
+    private final int width; // width of the NAF of the scalar
+    private final FiniteFieldElementArithmetics f;
+
+    public PointHalvingArithmetics(EllipticCurve ellipticCurve) {
+        super(ellipticCurve);
+        if(!isHalvable(ellipticCurve)) throw new RuntimeException("point halving needs the curve of odd degree with Tr(a) = 1 and cofactor 2");
+        this.f = ellipticCurve.getFieldArithmetics();
+        this.width = ellipticCurve.getN().bitLength()>300 ? 5 : 4;
+    }
+
+    /**
+     * @param ellipticCurve
+     * @return true if the curve is defined over GF(2^m) with odd m, Tr(a) = 1 and h = 2
+     */
+    static boolean isHalvable(EllipticCurve ellipticCurve){
+        if(!(ellipticCurve.getFieldArithmetics().getField() instanceof BinaryExtensionField)) return false;
+        if((((BinaryExtensionField)ellipticCurve.getFieldArithmetics().getField()).getOrderQ()&1)==0) return false;
+        if(!ellipticCurve.getH().equals(BigInteger.valueOf(2))) return false;
+        return ellipticCurve.getFieldArithmetics().trace(ellipticCurve.getA()).signum()!=0;
+    }
+
+    @Override
+    public EllipticCurvePoint mul(BigInteger times, EllipticCurvePoint p1){
+        if(times.signum()==-1) throw new RuntimeException("negative times");
+        if(times.compareTo(BigInteger.ZERO) == 0)
+            throw new RuntimeException("multiply to zero");
+        if(times.compareTo(BigInteger.ONE) == 0)
+            return p1;
+        EllipticCurvePoint r = mulByComb(times, p1);
+        if(r!=null) return r; // the comb of G is cheaper than the halvings
+        BigInteger n = ellipticCurve.getN();
+        int t = n.bitLength();
+        // the halvings go over all t bits, the short scalars are cheaper to double,
+        // the points of Tr(x) = 0, e.g. the 2-torsion point, are out of the subgroup
+        if(times.bitLength()<t/2 || f.trace(p1.getPointX()).signum()==0) return super.mul(times, p1);
+        // k = k'/2^(t-1) mod n, k' = sum of d_i*2^i
+        BigInteger k = times.shiftLeft(t-1).mod(n);
+        if(k.signum()==0) return EllipticCurvePoint.POINT_ON_INFINITY;
+        int[] digits = naf(k, width);
+
+        Scratch s = scratch.get();
+        int count = 1<<(width-2);
+        // bucket Q_j collects the points of the digits +-(2j+1), kP = sum of (2j+1)*Q_j
+        MutableFiniteFieldElement[] qx = new MutableFiniteFieldElement[count];
+        MutableFiniteFieldElement[] qy = new MutableFiniteFieldElement[count];
+        boolean[] empty = new boolean[count];
+        for(int i=0;i<count;i++){
+            qx[i] = f.newMutableElement();
+            qy[i] = f.newMutableElement();
+            empty[i] = true;
+        }
+        MutableFiniteFieldElement rx = f.newMutableElement();
+        MutableFiniteFieldElement rl = f.newMutableElement();
+        MutableFiniteFieldElement one = f.newMutableElement();
+        f.load(one, f.getElementFactory().createFrom(BigInteger.ONE));
+
+        f.load(s.px, p1.getPointX());
+        f.load(s.py, p1.getPointY());
+        if(digits.length>t){
+            // the digit d_t goes with 2P
+            f.set(s.x, s.px);
+            f.set(s.y, s.py);
+            if(doubInto(f, s)) return super.mul(times, p1);
+            f.set(s.px, s.x);
+            f.set(s.py, s.y);
+            add(s, qx, qy, empty, digits[t]);
+            f.load(s.px, p1.getPointX());
+            f.load(s.py, p1.getPointY());
+        }
+        // R = P in the lambda-representation
+        f.set(rx, s.px);
+        f.invInto(rl, s.px);
+        f.mulInto(rl, rl, s.py);
+        f.addInto(rl, rl, s.px);
+        for(int i=t-1;i>=0;i--){
+            if(i<digits.length && digits[i]!=0){
+                // (px, py) = R in the affine coordinates, y = x*(x + l)
+                f.set(s.px, rx);
+                f.addInto(s.py, rx, rl);
+                f.mulInto(s.py, s.py, rx);
+                add(s, qx, qy, empty, digits[i]);
+            }
+            if(i>0) halve(s, rx, rl, one);
+        }
+
+        // sum of (2j+1)*Q_j = A + 2B, A = sum of Q_j, B = sum of j*Q_j
+        boolean aEmpty = true, bEmpty = true;
+        MutableFiniteFieldElement ax = rx, ay = rl; // reused
+        MutableFiniteFieldElement bx = f.newMutableElement(), by = f.newMutableElement();
+        for(int j=count-1;j>=1;j--){
+            if(!empty[j]){
+                if(aEmpty){
+                    f.set(ax, qx[j]);
+                    f.set(ay, qy[j]);
+                    aEmpty = false;
+                }else aEmpty = sum(s, ax, ay, qx[j], qy[j]);
+            }
+            if(!aEmpty){
+                if(bEmpty){
+                    f.set(bx, ax);
+                    f.set(by, ay);
+                    bEmpty = false;
+                }else bEmpty = sum(s, bx, by, ax, ay);
+            }
+        }
+        if(!bEmpty){
+            f.set(s.x, bx);
+            f.set(s.y, by);
+            bEmpty = doubInto(f, s);
+            f.set(bx, s.x);
+            f.set(by, s.y);
+        }
+        if(!empty[0]){
+            if(aEmpty){
+                f.set(ax, qx[0]);
+                f.set(ay, qy[0]);
+                aEmpty = false;
+            }else aEmpty = sum(s, ax, ay, qx[0], qy[0]);
+        }
+        if(!bEmpty){
+            if(aEmpty){
+                f.set(ax, bx);
+                f.set(ay, by);
+                aEmpty = false;
+            }else aEmpty = sum(s, ax, ay, bx, by);
+        }
+        if(aEmpty) return EllipticCurvePoint.POINT_ON_INFINITY;
+        return EllipticCurvePoint.create(f.store(ax), f.store(ay));
+    }
+
+    /**
+     * Q_|d| = Q_|d| + sign(d)*(px, py)
+     */
+    private void add(Scratch s, MutableFiniteFieldElement[] qx, MutableFiniteFieldElement[] qy, boolean[] empty, int d){
+        int j = Math.abs(d)>>>1;
+        if(d<0) negateInto(f, s.px, s.py);
+        if(empty[j]){
+            f.set(qx[j], s.px);
+            f.set(qy[j], s.py);
+            empty[j] = false;
+        }else empty[j] = sum(s, qx[j], qy[j], s.px, s.py);
+    }
+
+    /**
+     * (x, y) = (x, y) + (x2, y2)
+     * @return true if the result is the point on infinity
+     */
+    private boolean sum(Scratch s, MutableFiniteFieldElement x, MutableFiniteFieldElement y, MutableFiniteFieldElement x2, MutableFiniteFieldElement y2){
+        f.set(s.x, x);
+        f.set(s.y, y);
+        f.set(s.px, x2);
+        f.set(s.py, y2);
+        if(addInto(f, s)) return true;
+        f.set(x, s.x);
+        f.set(y, s.y);
+        return false;
+    }
+
+    /**
+     * (x, l) = (x, l)/2 in the lambda-representation, the point should be in the subgroup of odd order
+     *
+     * l' solves l'^2 + l' = x + a, t = x*(x + l + l'),
+     * the half is (sqrt(t + x), l') if Tr(t) = 0 and (sqrt(t), l' + 1) otherwise
+     */
+    private void halve(Scratch s, MutableFiniteFieldElement x, MutableFiniteFieldElement l, MutableFiniteFieldElement one){
+        f.addInto(s.t0, x, s.a);
+        f.halfTraceInto(s.t0, s.t0); // l'
+        f.addInto(s.t1, x, l);
+        f.addInto(s.t1, s.t1, s.t0);
+        f.mulInto(s.t1, s.t1, x); // t
+        if(f.trace(s.t1)==0){
+            f.addInto(s.t1, s.t1, x);
+            f.set(l, s.t0);
+        }else f.addInto(l, s.t0, one);
+        f.sqrtInto(x, s.t1);
+    }
+}
@@ -26,11 +26,16 @@ public class BinaryExtensionField extends FiniteField{
     
     private final int  orderQ; // order exponent
     private final BinaryExtensionFieldElement irreduciblePoly; // irreducible polynom
+    private final int[] exponents; // exponents of the non zero terms of the polynom in descending order
     
     public BinaryExtensionField(BinaryExtensionFieldElement irreduciblePoly) {
         super(new BigInteger("2"),new BigInteger("2").pow(irreduciblePoly.getDegree()));
         this.orderQ = irreduciblePoly.getDegree();
         this.irreduciblePoly = irreduciblePoly;
+        this.exponents = new int[irreduciblePoly.bitCount()];
+        for(int i=orderQ, j=0;i>=0;i--){
+            if(irreduciblePoly.testBit(i)) exponents[j++] = i;
+        }
     }
 
     public int getOrderQ() {
@@ -40,6 +45,15 @@ public class BinaryExtensionField extends FiniteField{
     public BinaryExtensionFieldElement getIrreduciblePoly() {
         return irreduciblePoly;
     }
+
+    /**
+     * 
+     * @return exponents of the irreducible polynom in descending order,
+     * e.g. {233, 74, 0} for x^233 x^74 1
+     */
+    public int[] getExponents() {
+        return exponents.clone();
+    }
     
     @Override
     public String toString(){
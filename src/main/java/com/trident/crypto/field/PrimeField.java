@@ -23,10 +23,26 @@ import java.math.BigInteger;
  */
 public class PrimeField extends FiniteField{
     
+    private volatile BigInteger barrettConstant; // lazily computed 2^(2*64*k)/p
+    
     public PrimeField(BigInteger orderP) {
         super(orderP, orderP);
     }
     
+    /**
+     * precomputed constant of Barrett reduction
+     * @return floor(2^(128*k)/p) where k is the count of 64-bit words of p
+     */
+    public BigInteger getBarrettConstant(){
+        BigInteger mu = barrettConstant;
+        if(mu == null){
+            int k = (getOrderP().bitLength()+63)/64;
+            mu = BigInteger.ONE.shiftLeft(128*k).divide(getOrderP());
+            barrettConstant = mu;
+        }
+        return mu;
+    }
+    
     @Override
     public String toString(){
         return "Prime field over "+getOrderP();
@@ -26,12 +26,14 @@ import java.util.Set;
 @SuppressWarnings("serial")
 public class BinaryExtensionFieldElement extends FiniteFieldElement{
     
-    private int degree;
-        
     BinaryExtensionFieldElement(BigInteger element){
         super(element);
     }
     
+    BinaryExtensionFieldElement(byte[] magnitude){
+        super(magnitude, 1);
+    }
+    
     /**
      * 
      * @return the degree of this poly
@@ -39,20 +41,7 @@ public class BinaryExtensionFieldElement extends FiniteFieldElement{
      */
     @Override
     public int getDegree() {
-        if(this.compareTo(ZERO)==0) return -1;
-        
-        byte[] array = toByteArray();
-        if(degree == 0){
-            for(int i = 0; i< array.length;i++){
-                for(int j=7; j >= 0; j--){
-                    if((array[i]&(1<<j))!=0){
-                        degree = 8*(array.length-i-1)+j;
-                        return degree;
-                    }
-                }
-            }
-        }
-        return degree;
+        return bitLength()-1;
     }
 
     /**
@@ -28,4 +28,9 @@ public class BinaryExtensionFieldElementFactory extends FiniteFieldElementFactor
         if(value.signum()<0) throw new RuntimeException("biginteger should not be negative");
         return new BinaryExtensionFieldElement(value);
     }
+    
+    @Override
+    public BinaryExtensionFieldElement createFrom(byte[] magnitude){
+        return new BinaryExtensionFieldElement(magnitude);
+    }
 }
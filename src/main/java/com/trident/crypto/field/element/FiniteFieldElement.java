@@ -32,6 +32,10 @@ public class FiniteFieldElement extends BigInteger{
         super(element.toByteArray());
     }
     
+    FiniteFieldElement(byte[] magnitude, int signum){
+        super(signum, magnitude);
+    }
+    
     public int getDegree(){
         return 1;
     }
@@ -31,4 +31,14 @@ public class FiniteFieldElementFactory {
         if(value.signum()<0) throw new RuntimeException("biginteger should not be negative");
         return new FiniteFieldElement(value);
     }
+    
+    /**
+     * create the finite field element from its unsigned big-endian magnitude,
+     * avoids the byte copying round trip of createFrom(BigInteger)
+     * @param magnitude
+     * @return 
+     */
+    public FiniteFieldElement createFrom(byte[] magnitude){
+        return new FiniteFieldElement(magnitude, 1);
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import com.trident.crypto.field.element.FiniteFieldElement;
+import java.math.BigInteger;
+
+/**
+ * fixed sequence of squarings and multiplications computing x^e
+ * for the exponent e known in advance, built once with the sliding window
+ * method over the odd powers x, x^3, ..., x^(2^w - 1)
+ *
+ * the sequence depends only on the exponent, so the evaluation takes
+ * the same steps for every x
+ * @author trident
+ */
+final class AdditionChain {
+
+    /**
+     * in-place multiplication of the values of some fixed representation,
+     * the scratch comes from the caller, so the multiplier holds no buffers
+     */
+    interface Multiplier{
+        /**
+         * r = a*b, r may alias a or b
+         * @param t - scratch of the representation
+         */
+        void mul(long[] r, long[] a, long[] b, long[] t);
+
+        /**
+         * r = a*a, r may alias a
+         * @param t - scratch of the representation
+         */
+        void sqr(long[] r, long[] a, long[] t);
+    }
+
+    private static final int MAX_WINDOW = 6; // of the longest exponents
+
+    private final BigInteger exponent;
+    private final int[] squarings; // squarings done before the multiplication by the digit
+    private final int[] digits; // odd window values
+    private final int tail; // squarings after the last window
+    private final int tableSize; // count of odd powers used
+
+    private AdditionChain(BigInteger exponent, int[] squarings, int[] digits, int tail){
+        this.exponent = exponent;
+        this.squarings = squarings;
+        this.digits = digits;
+        this.tail = tail;
+        int max = 1;
+        for(int d: digits) max = Math.max(max, d);
+        this.tableSize = (max+1)>>>1;
+    }
+
+    /**
+     * @param exponent - positive
+     * @return the sliding window chain of the exponent
+     */
+    static AdditionChain slidingWindow(BigInteger exponent){
+        if(exponent.signum()<=0) throw new RuntimeException("exponent of addition chain should be positive");
+        int bits = exponent.bitLength();
+        int w = bits>512 ? MAX_WINDOW : bits>160 ? 5 : bits>64 ? 4 : bits>16 ? 3 : 1;
+        int[] squarings = new int[bits];
+        int[] digits = new int[bits];
+        int count = 0;
+        int pending = 0;
+        int i = bits-1;
+        while(i>=0){
+            if(!exponent.testBit(i)){
+                pending++;
+                i--;
+                continue;
+            }
+            int l = Math.max(i-w+1, 0);
+            while(!exponent.testBit(l)) l++;
+            int digit = 0;
+            for(int j=i;j>=l;j--) digit = (digit<<1)|(exponent.testBit(j) ? 1 : 0);
+            squarings[count] = count==0 ? 0 : pending + i - l + 1;
+            digits[count] = digit;
+            count++;
+            pending = 0;
+            i = l-1;
+        }
+        int[] s = new int[count];
+        int[] d = new int[count];
+        System.arraycopy(squarings, 0, s, 0, count);
+        System.arraycopy(digits, 0, d, 0, count);
+        return new AdditionChain(exponent, s, d, pending);
+    }
+
+    BigInteger getExponent(){
+        return exponent;
+    }
+
+    /**
+     * @param length - limbs of the values
+     * @return rows for the odd powers of the widest window and x^2, enough for every chain
+     */
+    static long[][] newTable(int length){
+        return new long[(1<<(MAX_WINDOW-1))+1][length];
+    }
+
+    /**
+     * r = x^e
+     * @param r - result, may alias x
+     * @param x
+     * @param m - multiplication in the representation of x
+     * @param t - scratch of the multiplication
+     */
+    void evaluate(long[] r, long[] x, Multiplier m, long[] t){
+        evaluate(r, x, m, t, new long[tableSize+1][x.length]);
+    }
+
+    /**
+     * r = x^e without the allocations
+     * @param r - result, may alias x
+     * @param x
+     * @param m - multiplication in the representation of x
+     * @param t - scratch of the multiplication
+     * @param table - rows of the length of x from newTable, at least tableSize + 1, the last one used holds x^2
+     */
+    void evaluate(long[] r, long[] x, Multiplier m, long[] t, long[][] table){
+        int n = x.length;
+        System.arraycopy(x, 0, table[0], 0, n);
+        if(tableSize>1){
+            long[] x2 = table[tableSize];
+            m.sqr(x2, x, t);
+            for(int i=1;i<tableSize;i++) m.mul(table[i], table[i-1], x2, t);
+        }
+        System.arraycopy(table[digits[0]>>>1], 0, r, 0, n);
+        for(int i=1;i<digits.length;i++){
+            for(int j=0;j<squarings[i];j++) m.sqr(r, r, t);
+            m.mul(r, r, table[digits[i]>>>1], t);
+        }
+        for(int j=0;j<tail;j++) m.sqr(r, r, t);
+    }
+
+    /**
+     * @param f
+     * @param x
+     * @return x^e computed with the field arithmetics
+     */
+    FiniteFieldElement evaluate(FiniteFieldElementArithmetics f, FiniteFieldElement x){
+        FiniteFieldElement[] table = new FiniteFieldElement[tableSize];
+        table[0] = x;
+        if(tableSize>1){
+            FiniteFieldElement x2 = f.sqr(x);
+            for(int i=1;i<tableSize;i++) table[i] = f.mul(table[i-1], x2);
+        }
+        FiniteFieldElement r = table[digits[0]>>>1];
+        for(int i=1;i<digits.length;i++){
+            for(int j=0;j<squarings[i];j++) r = f.sqr(r);
+            r = f.mul(r, table[digits[i]>>>1]);
+        }
+        for(int j=0;j<tail;j++) r = f.sqr(r);
+        return r;
+    }
+}
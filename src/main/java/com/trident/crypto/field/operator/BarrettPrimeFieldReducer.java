@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import com.trident.crypto.field.PrimeField;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Barrett reduction modulo arbitrary field order p of k 64-bit limbs,
+ * the quotient is estimated as ((t/b^(k-1))*mu)/b^(k+1) with b = 2^64
+ * and mu = b^(2k)/p precomputed once per field, the quotient and the remainder
+ * are kept in the scratch limbs of t, so the reduction allocates nothing
+ * @see PrimeField#getBarrettConstant()
+ * @author trident
+ */
+final class BarrettPrimeFieldReducer implements PrimeFieldReducer{
+
+    private final int k; // count of limbs of p
+    private final long[] p; // k+1 limbs, the top one is zero
+    private final long[] mu; // k+1 limbs
+
+    BarrettPrimeFieldReducer(PrimeField field){
+        BigInteger order = field.getOrderP();
+        this.k = Limbs.length(order.bitLength());
+        this.p = Limbs.fromBigInteger(order, k+1);
+        this.mu = Limbs.fromBigInteger(field.getBarrettConstant(), k+1);
+    }
+
+    /**
+     * 2(k+1) limbs of the quotient and k+1 limbs of the remainder
+     */
+    @Override
+    public int scratchLength() {
+        return 3*(k+1);
+    }
+
+    @Override
+    public void reduce(long[] r, long[] t) {
+        int m = k+1;
+        // q2 = q1*mu where q1 = t/b^(k-1) are the limbs t[k-1..2k-1]
+        int q = 2*k;
+        Arrays.fill(t, q, q+2*m, 0L);
+        for(int i=0;i<m;i++){
+            long x = t[k-1+i];
+            long c = 0;
+            for(int j=0;j<m;j++){
+                long lo = x*mu[j];
+                long hi = Limbs.mulHigh(x, mu[j]);
+                long s = lo + t[q+i+j];
+                hi += Limbs.carry(lo, t[q+i+j], s);
+                long u = s + c;
+                hi += Limbs.carry(s, c, u);
+                t[q+i+j] = u;
+                c = hi;
+            }
+            t[q+i+m] = c;
+        }
+        // r = t - q3*p mod b^(k+1) where q3 = q2/b^(k+1) are the limbs q[m..2m-1]
+        int rr = q+2*m;
+        System.arraycopy(t, 0, t, rr, m);
+        for(int i=0;i<m;i++){
+            long x = t[q+m+i];
+            long c = 0; // borrow including the high part of the products
+            for(int j=0;i+j<m;j++){
+                long lo = x*p[j];
+                long hi = Limbs.mulHigh(x, p[j]);
+                long s = lo + c;
+                hi += Limbs.carry(lo, c, s);
+                long d = t[rr+i+j] - s;
+                hi += Limbs.borrow(t[rr+i+j], s, d);
+                t[rr+i+j] = d;
+                c = hi;
+            }
+        }
+        // the estimated quotient is at most 2 less than the exact one
+        while(compare(t, rr)>=0) sub(t, rr);
+        System.arraycopy(t, rr, r, 0, k);
+    }
+
+    /**
+     * @return sign of t[off..off+k] - p
+     */
+    private int compare(long[] t, int off){
+        for(int i=k;i>=0;i--){
+            if(t[off+i]!=p[i]) return Long.compareUnsigned(t[off+i], p[i]);
+        }
+        return 0;
+    }
+
+    /**
+     * t[off..off+k] -= p
+     */
+    private void sub(long[] t, int off){
+        long c = 0;
+        for(int i=0;i<=k;i++){
+            long x = t[off+i], y = p[i];
+            long d = x - y;
+            long c1 = Limbs.borrow(x, y, d);
+            long u = d - c;
+            t[off+i] = u;
+            c = c1 | Limbs.borrow(d, c, u);
+        }
+    }
+}
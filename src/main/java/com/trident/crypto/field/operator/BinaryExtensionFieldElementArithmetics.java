@@ -76,6 +76,15 @@ class BinaryExtensionFieldElementArithmetics extends FiniteFieldElementArithmeti
     @Override
     public FiniteFieldElement mul(FiniteFieldElement el1, FiniteFieldElement el2) {  
         if(el1.equals(BigInteger.ZERO)||el2.equals(BigInteger.ZERO)) return getElementFactory().createFrom(BigInteger.ZERO);
+        return mod(getElementFactory().createFrom(product(el1, el2)));
+    }
+    
+    /**
+     * @param el1
+     * @param el2
+     * @return unreduced polynomial product of the reduced elements
+     */
+    private BigInteger product(FiniteFieldElement el1, FiniteFieldElement el2){
         el1 = mod(el1);
         el2 = mod(el2);
         BigInteger el2b = el2;
@@ -84,7 +93,63 @@ class BinaryExtensionFieldElementArithmetics extends FiniteFieldElementArithmeti
             if(el1.testBit(i)) product = product.xor(el2b); 
             el2b = el2b.shiftLeft(1);
         }
-        return mod(getElementFactory().createFrom(product));
+        return product;
+    }
+
+    @Override
+    public FiniteFieldElement mulAdd(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        return mod(getElementFactory().createFrom(product(el1, el2).xor(el3)));
+    }
+
+    @Override
+    public FiniteFieldElement mulSub(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        return mulAdd(el1, el2, el3);
+    }
+
+    @Override
+    public FiniteFieldElement addMul(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        return mul(getElementFactory().createFrom(el1.xor(el2)), el3);
+    }
+
+    @Override
+    public FiniteFieldElement sumOfProducts(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3, FiniteFieldElement el4) {
+        return mod(getElementFactory().createFrom(product(el1, el2).xor(product(el3, el4))));
+    }
+
+    /**
+     * the characteristic is 2, so k*el1 is either zero or el1
+     */
+    @Override
+    public FiniteFieldElement mulSmall(FiniteFieldElement el1, int k) {
+        return (k&1)==0 ? getElementFactory().createFrom(BigInteger.ZERO) : mod(el1);
+    }
+
+    /**
+     * squaring of binary polynomial is linear, the bit i of el1 
+     * goes to the bit 2i of the square and there are no cross terms
+     */
+    @Override
+    public FiniteFieldElement sqr(FiniteFieldElement el1) {
+        long[] a = Limbs.fromBigInteger(mod(el1), Limbs.length(el1.bitLength()));
+        long[] r = new long[2*a.length];
+        for(int i=0;i<a.length;i++){
+            r[2*i] = spread(a[i]&0xFFFFFFFFL);
+            r[2*i+1] = spread(a[i]>>>32);
+        }
+        return mod(getElementFactory().createFrom(Limbs.toMagnitude(r)));
+    }
+
+    /**
+     * @param x - 32-bit value
+     * @return x with zero bits interleaved, i.e. bit i moved to bit 2i
+     */
+    static long spread(long x){
+        x = (x | (x<<16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x<<8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x<<4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x<<2)) & 0x3333333333333333L;
+        x = (x | (x<<1)) & 0x5555555555555555L;
+        return x;
     }
 
     @Override
@@ -109,6 +174,72 @@ class BinaryExtensionFieldElementArithmetics extends FiniteFieldElementArithmeti
         return t;
     }
 
+    @Override
+    public FiniteFieldElement pow(FiniteFieldElement el1, BigInteger exponent) {
+        if(exponent.signum()<0) return pow(inv(el1), exponent.negate());
+        if(exponent.signum()==0) return getElementFactory().createFrom(BigInteger.ONE);
+        return AdditionChain.slidingWindow(exponent).evaluate(this, mod(el1));
+    }
+
+    /**
+     * squaring is a bijection in GF(2^m), the root is x^(2^(m-1))
+     */
+    @Override
+    public FiniteFieldElement sqrt(FiniteFieldElement el1) {
+        FiniteFieldElement r = mod(el1);
+        for(int i=1;i<irreduciblePoly.getDegree();i++) r = sqr(r);
+        return r;
+    }
+
+    @Override
+    public FiniteFieldElement trace(FiniteFieldElement el1) {
+        FiniteFieldElement c = mod(el1);
+        FiniteFieldElement r = c;
+        for(int i=1;i<irreduciblePoly.getDegree();i++){
+            c = sqr(c);
+            r = add(r, c);
+        }
+        return r;
+    }
+
+    @Override
+    public FiniteFieldElement halfTrace(FiniteFieldElement el1) {
+        int m = irreduciblePoly.getDegree();
+        if((m&1)==0) throw new RuntimeException("half-trace is defined only for binary extension field of odd degree");
+        FiniteFieldElement c = mod(el1);
+        FiniteFieldElement r = c;
+        for(int i=1;i<=(m-1)/2;i++){
+            c = sqr(sqr(c));
+            r = add(r, c);
+        }
+        return r;
+    }
+
+    /**
+     * for odd m the solution is the half-trace, otherwise
+     * z = sum (c + c^2 + ... + c^(2^(i-1)))*d^(2^i), i = 1..m-1, for any d of trace 1
+     */
+    @Override
+    public FiniteFieldElement solveQuadratic(FiniteFieldElement el1) {
+        FiniteFieldElement c = mod(el1);
+        if(!trace(c).equals(BigInteger.ZERO)) throw new RuntimeException("z^2 + z = c has no solution in the field");
+        int m = irreduciblePoly.getDegree();
+        if((m&1)==1) return halfTrace(c);
+        FiniteFieldElement d = getElementFactory().createFrom(BigInteger.ONE);
+        while(trace(d).equals(BigInteger.ZERO)) d = getElementFactory().createFrom(d.shiftLeft(1));
+        FiniteFieldElement z = getElementFactory().createFrom(BigInteger.ZERO);
+        FiniteFieldElement sum = c; // c + c^2 + ... + c^(2^(i-1))
+        FiniteFieldElement c2 = c;
+        FiniteFieldElement d2 = d;
+        for(int i=1;i<m;i++){
+            d2 = sqr(d2);
+            z = mulAdd(sum, d2, z);
+            c2 = sqr(c2);
+            sum = add(sum, c2);
+        }
+        return z;
+    }
+
     @Override
     public FiniteFieldElement mod(FiniteFieldElement el1) {
         return divEuclid(el1,irreduciblePoly).getK();
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+/**
+ * defines how the elements of binary extension field are inverted
+ * @see FiniteFieldElementArithmetics#createFieldElementArithmetics(com.trident.crypto.field.element.BinaryExtensionFieldElement, BinaryFieldInversion)
+ * @author trident
+ */
+public enum BinaryFieldInversion {
+    /**
+     * extended Euclidean algorithm on the word arrays,
+     * the default as the fastest one for all SECT fields
+     */
+    EUCLID,
+
+    /**
+     * binary almost inverse algorithm computing a^-1*x^k,
+     * followed by the division by x^k in chunks of bits below the second term of the polynomial
+     */
+    ALMOST_INVERSE,
+
+    /**
+     * Itoh-Tsujii inversion a^-1 = a^(2^m - 2) with the addition chain of m - 1,
+     * takes about log(m) multiplications and the table-driven repeated squarings
+     */
+    ITOH_TSUJII
+}
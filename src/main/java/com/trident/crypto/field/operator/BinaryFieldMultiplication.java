@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+/**
+ * defines how the elements of binary extension field are multiplied
+ * @see FiniteFieldElementArithmetics#createFieldElementArithmetics(com.trident.crypto.field.element.BinaryExtensionFieldElement, BinaryFieldMultiplication)
+ * @author trident
+ */
+public enum BinaryFieldMultiplication {
+    /**
+     * left-to-right comb method with 4-bit window over all the words,
+     * the default as it is faster than Karatsuba up to SECT571
+     */
+    COMB,
+
+    /**
+     * recursive Karatsuba-Ofman split of the words in halves down to 
+     * the operands of 5 words multiplied by the comb method,
+     * splits only the elements of SECT409 (4 + 3 words) and SECT571 (5 + 4 words)
+     */
+    KARATSUBA
+}
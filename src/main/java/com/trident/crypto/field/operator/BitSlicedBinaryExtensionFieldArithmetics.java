@@ -0,0 +1,351 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import com.trident.crypto.field.BinaryExtensionField;
+import com.trident.crypto.field.element.BinaryExtensionFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * arithmetics of 64 independent elements of GF(2^m) at once
+ *
+ * the elements are kept transposed in the slice of m words, the word i holds
+ * the coefficients of x^i of all 64 lanes, the bit j of every word belongs to the lane j,
+ * so each xor or and of the words is the gate applied to all lanes together
+ *
+ * the operations are the same for every lane, the lanes are chosen with the masks,
+ * e.g. select(r, mask, a, b), so the point operations over many points can go in lockstep
+ * @author trident
+ */
+public final class BitSlicedBinaryExtensionFieldArithmetics {
+
+    /**
+     * count of the elements in the slice
+     */
+    public static final int LANES = 64;
+
+    private static final int KARATSUBA_CROSSOVER = 32; // schoolbook below
+
+    private final FiniteFieldElementArithmetics arithmetics; // for the reduction and creation of the lane values
+    private final int degree;
+    private final int[] terms; // exponents of the polynom below m, descending
+    private final int[] inversionChain; // bits of m-1 below the leading one, most significant first
+    private final int scratchLength;
+
+    public BitSlicedBinaryExtensionFieldArithmetics(BinaryExtensionFieldElement fieldIrreduciblePoly){
+        this.arithmetics = FiniteFieldElementArithmetics.createFieldElementArithmetics(fieldIrreduciblePoly);
+        BinaryExtensionField field = (BinaryExtensionField)arithmetics.getField();
+        this.degree = field.getOrderQ();
+        int[] exponents = field.getExponents();
+        this.terms = new int[exponents.length-1];
+        System.arraycopy(exponents, 1, terms, 0, terms.length);
+        int e = degree-1;
+        this.inversionChain = new int[Math.max(0, 31-Integer.numberOfLeadingZeros(e))];
+        for(int i=0;i<inversionChain.length;i++) inversionChain[i] = (e>>>(inversionChain.length-1-i))&1;
+        this.scratchLength = 2*degree + karatsubaScratch(degree);
+    }
+
+    /**
+     * @return the arithmetics of the single elements of this field
+     */
+    public FiniteFieldElementArithmetics getFieldArithmetics(){
+        return arithmetics;
+    }
+
+    /**
+     * @return zero in all lanes
+     */
+    public long[] newSlice(){
+        return new long[degree];
+    }
+
+    /**
+     * transposes up to 64 elements into the slice, the missing lanes are zero
+     * @param r - slice
+     * @param els
+     * @param offset - index of the element of the lane 0
+     */
+    public void pack(long[] r, FiniteFieldElement[] els, int offset){
+        Arrays.fill(r, 0L);
+        long[] words = new long[Limbs.length(degree)];
+        int count = Math.min(LANES, els.length-offset);
+        for(int j=0;j<count;j++){
+            Limbs.fromBigInteger(arithmetics.mod(els[offset+j]), words);
+            for(int w=0;w<words.length;w++){
+                long v = words[w];
+                while(v!=0){
+                    int i = 64*w + Long.numberOfTrailingZeros(v);
+                    r[i] |= 1L<<j;
+                    v &= v-1;
+                }
+            }
+        }
+    }
+
+    /**
+     * transposes the slice back to the elements
+     * @param a - slice
+     * @param els - receives the values of the lanes
+     * @param offset - index of the element of the lane 0, the lanes past the end of els are dropped
+     */
+    public void unpack(long[] a, FiniteFieldElement[] els, int offset){
+        int count = Math.min(LANES, els.length-offset);
+        long[] words = new long[Limbs.length(degree)];
+        for(int j=0;j<count;j++){
+            Arrays.fill(words, 0L);
+            for(int i=0;i<degree;i++) words[i>>>6] |= ((a[i]>>>j)&1L)<<(i&63);
+            els[offset+j] = arithmetics.getElementFactory().createFrom(Limbs.toMagnitude(words));
+        }
+    }
+
+    /**
+     * r = el1 in all lanes
+     */
+    public void broadcast(long[] r, FiniteFieldElement el1){
+        BigInteger a = arithmetics.mod(el1);
+        for(int i=0;i<degree;i++) r[i] = a.testBit(i) ? -1L : 0L;
+    }
+
+    /**
+     * @return scratch of the multiplication and the squaring
+     */
+    public long[] newScratch(){
+        return new long[scratchLength];
+    }
+
+    /**
+     * r = a
+     */
+    public void set(long[] r, long[] a){
+        System.arraycopy(a, 0, r, 0, degree);
+    }
+
+    /**
+     * r = mask ? a : b in each lane
+     */
+    public void select(long[] r, long mask, long[] a, long[] b){
+        for(int i=0;i<degree;i++) r[i] = (a[i]&mask)|(b[i]&~mask);
+    }
+
+    /**
+     * exchanges a and b in the lanes of the mask
+     */
+    public void swap(long[] a, long[] b, long mask){
+        for(int i=0;i<degree;i++){
+            long t = (a[i]^b[i])&mask;
+            a[i] ^= t;
+            b[i] ^= t;
+        }
+    }
+
+    /**
+     * @return mask of the lanes where a = 0
+     */
+    public long zeroMask(long[] a){
+        long acc = 0;
+        for(int i=0;i<degree;i++) acc |= a[i];
+        return ~acc;
+    }
+
+    /**
+     * @return mask of the lanes where a = b
+     */
+    public long equalMask(long[] a, long[] b){
+        long acc = 0;
+        for(int i=0;i<degree;i++) acc |= a[i]^b[i];
+        return ~acc;
+    }
+
+    /**
+     * r = a + b, r may alias a or b
+     */
+    public void add(long[] r, long[] a, long[] b){
+        for(int i=0;i<degree;i++) r[i] = a[i]^b[i];
+    }
+
+    /**
+     * r = a*b, r may alias a or b
+     */
+    public void mul(long[] r, long[] a, long[] b){
+        mul(r, a, b, newScratch());
+    }
+
+    /**
+     * r = a*b, r may alias a or b
+     * @param c - scratch from newScratch()
+     */
+    public void mul(long[] r, long[] a, long[] b, long[] c){
+        karatsuba(c, 0, a, 0, b, 0, degree, c, 2*degree);
+        reduce(c);
+        System.arraycopy(c, 0, r, 0, degree);
+    }
+
+    /**
+     * r = a^2, r may alias a
+     */
+    public void sqr(long[] r, long[] a){
+        sqrn(r, a, 1, new long[2*degree]);
+    }
+
+    /**
+     * r = a^2, r may alias a
+     * @param c - scratch from newScratch()
+     */
+    public void sqr(long[] r, long[] a, long[] c){
+        sqrn(r, a, 1, c);
+    }
+
+    /**
+     * r = a^(2^k), r may alias a
+     * @param c - scratch of at least 2m words
+     */
+    private void sqrn(long[] r, long[] a, int k, long[] c){
+        System.arraycopy(a, 0, c, 0, degree);
+        for(int j=0;j<k;j++){
+            for(int i=degree-1;i>0;i--){
+                c[2*i] = c[i];
+                c[2*i-1] = 0;
+            }
+            reduce(c);
+        }
+        System.arraycopy(c, 0, r, 0, degree);
+    }
+
+    /**
+     * r = a^-1 in the lanes where a is not zero, zero in the others, r may alias a
+     *
+     * a^-1 = (a^(2^(m-1) - 1))^2 by Itoh-Tsujii chain over the bits of m-1,
+     * the squarings are only the moves of the words
+     */
+    public void inv(long[] r, long[] a){
+        long[] b = a.clone(); // a^(2^k - 1)
+        long[] t = new long[degree];
+        long[] c = newScratch();
+        int k = 1;
+        for(int bit: inversionChain){
+            sqrn(t, b, k, c);
+            mul(b, b, t, c);
+            k <<= 1;
+            if(bit!=0){
+                sqrn(b, b, 1, c);
+                mul(b, b, a, c);
+                k++;
+            }
+        }
+        sqrn(r, b, 1, c);
+    }
+
+    /**
+     * out[i] = a[i] + b[i]
+     */
+    public void addAll(FiniteFieldElement[] a, FiniteFieldElement[] b, FiniteFieldElement[] out){
+        apply(a, b, out, 0);
+    }
+
+    /**
+     * out[i] = a[i]*b[i]
+     */
+    public void mulAll(FiniteFieldElement[] a, FiniteFieldElement[] b, FiniteFieldElement[] out){
+        apply(a, b, out, 1);
+    }
+
+    /**
+     * out[i] = in[i]^2
+     */
+    public void sqrAll(FiniteFieldElement[] in, FiniteFieldElement[] out){
+        apply(in, in, out, 2);
+    }
+
+    /**
+     * out[i] = in[i]^-1, zero elements have no inverse and are left as zero in out
+     */
+    public void invAll(FiniteFieldElement[] in, FiniteFieldElement[] out){
+        apply(in, in, out, 3);
+    }
+
+    private void apply(FiniteFieldElement[] a, FiniteFieldElement[] b, FiniteFieldElement[] out, int op){
+        if(a.length!=out.length || b.length!=out.length) throw new RuntimeException("input and output should have the same length");
+        long[] x = newSlice();
+        long[] y = newSlice();
+        for(int offset=0;offset<out.length;offset+=LANES){
+            pack(x, a, offset);
+            switch(op){
+                case 0: pack(y, b, offset); add(x, x, y); break;
+                case 1: pack(y, b, offset); mul(x, x, y); break;
+                case 2: sqr(x, x); break;
+                default: inv(x, x);
+            }
+            unpack(x, out, offset);
+        }
+    }
+
+    /**
+     * reduction of the product of 2m-1 coefficients by the sparse polynom,
+     * the top coefficients are folded down from the highest one
+     */
+    private void reduce(long[] c){
+        for(int i=2*degree-2;i>=degree;i--){
+            long w = c[i];
+            if(w==0) continue;
+            int base = i-degree;
+            for(int e: terms) c[base+e] ^= w;
+        }
+    }
+
+    /**
+     * @return the scratch words needed by karatsuba for n coefficients
+     */
+    private static int karatsubaScratch(int n){
+        if(n<=KARATSUBA_CROSSOVER) return 0;
+        int h = (n+1)>>>1;
+        return 4*h + karatsubaScratch(h);
+    }
+
+    /**
+     * c[co..co+2n) = a[ao..ao+n)*b[bo..bo+n), the last word is zero
+     * @param t - scratch from to, karatsubaScratch(n) words
+     */
+    private static void karatsuba(long[] c, int co, long[] a, int ao, long[] b, int bo, int n, long[] t, int to){
+        if(n<=KARATSUBA_CROSSOVER){
+            schoolbook(c, co, a, ao, b, bo, n);
+            return;
+        }
+        int h = (n+1)>>>1, l = n-h;
+        // low and high halves straight into c
+        karatsuba(c, co, a, ao, b, bo, h, t, to);
+        karatsuba(c, co+2*h, a, ao+h, b, bo+h, l, t, to);
+        // (a0 + a1)*(b0 + b1) into t
+        int sa = to, sb = to+h, m = to+2*h;
+        for(int i=0;i<h;i++){
+            t[sa+i] = a[ao+i]^(i<l ? a[ao+h+i] : 0);
+            t[sb+i] = b[bo+i]^(i<l ? b[bo+h+i] : 0);
+        }
+        karatsuba(t, m, t, sa, t, sb, h, t, to+4*h);
+        for(int i=0;i<2*h-1;i++) t[m+i] ^= c[co+i]^(i<2*l-1 ? c[co+2*h+i] : 0);
+        for(int i=0;i<2*h-1;i++) c[co+h+i] ^= t[m+i];
+    }
+
+    private static void schoolbook(long[] c, int co, long[] a, int ao, long[] b, int bo, int n){
+        Arrays.fill(c, co, co+2*n, 0L);
+        for(int i=0;i<n;i++){
+            long x = a[ao+i];
+            int ci = co+i;
+            for(int j=0;j<n;j++) c[ci+j] ^= x&b[bo+j];
+        }
+    }
+}
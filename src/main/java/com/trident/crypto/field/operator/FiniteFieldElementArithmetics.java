@@ -62,12 +62,128 @@ public abstract class FiniteFieldElementArithmetics{
      */
     public abstract FiniteFieldElement mul(FiniteFieldElement el1, FiniteFieldElement el2);
     
+    /**
+     * square finite field element
+     * @param el1
+     * @return el1*el1
+     */
+    public abstract FiniteFieldElement sqr(FiniteFieldElement el1);
+    
+    /**
+     * el1*el2 + el3, the implementations reduce the result once
+     * @param el1
+     * @param el2
+     * @param el3
+     * @return 
+     */
+    public FiniteFieldElement mulAdd(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3){
+        return add(mul(el1, el2), el3);
+    }
+    
+    /**
+     * el1*el2 - el3, the implementations reduce the result once
+     * @param el1
+     * @param el2
+     * @param el3
+     * @return 
+     */
+    public FiniteFieldElement mulSub(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3){
+        return sub(mul(el1, el2), el3);
+    }
+    
+    /**
+     * (el1 + el2)*el3, the implementations reduce the result once
+     * @param el1
+     * @param el2
+     * @param el3
+     * @return 
+     */
+    public FiniteFieldElement addMul(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3){
+        return mul(add(el1, el2), el3);
+    }
+    
+    /**
+     * el1*el2 + el3*el4, the implementations reduce the result once
+     * @param el1
+     * @param el2
+     * @param el3
+     * @param el4
+     * @return 
+     */
+    public FiniteFieldElement sumOfProducts(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3, FiniteFieldElement el4){
+        return add(mul(el1, el2), mul(el3, el4));
+    }
+    
+    /**
+     * multiply element by small integer constant, i.e. add el1 to itself k times
+     * @param el1
+     * @param k - absolute value should be less than the characteristic of the field
+     * @return 
+     */
+    public FiniteFieldElement mulSmall(FiniteFieldElement el1, int k){
+        return mul(el1, getElementFactory().createFrom(BigInteger.valueOf(k)));
+    }
+    
     /**
      * find inverse of element
      * @param el1
      * @return inverse
      */
     public abstract FiniteFieldElement inv(FiniteFieldElement el1);
+
+    /**
+     * find inverses of all elements with single inversion and 3(n-1) multiplications
+     * (Montgomery's trick), zero elements have no inverse and are left as zero in out
+     * @param in
+     * @param out - receives the inverses, may be the same array as in
+     */
+    public void invAll(FiniteFieldElement[] in, FiniteFieldElement[] out){
+        if(in.length!=out.length) throw new RuntimeException("input and output should have the same length");
+        int n = in.length;
+        FiniteFieldElement[] x = new FiniteFieldElement[n];
+        FiniteFieldElement[] prefix = new FiniteFieldElement[n]; // product of the non-zero elements up to i
+        FiniteFieldElement acc = null;
+        for(int i=0;i<n;i++){
+            FiniteFieldElement el = mod(in[i]);
+            if(!el.equals(BigInteger.ZERO)){
+                x[i] = el;
+                acc = acc==null ? el : mul(acc, el);
+            }
+            prefix[i] = acc;
+        }
+        FiniteFieldElement zero = getElementFactory().createFrom(BigInteger.ZERO);
+        if(acc==null){
+            for(int i=0;i<n;i++) out[i] = zero;
+            return;
+        }
+        FiniteFieldElement inverse = inv(acc);
+        for(int i=n-1;i>=0;i--){
+            if(x[i]==null){
+                out[i] = zero;
+            } else if(i==0 || prefix[i-1]==null){
+                out[i] = inverse;
+            } else {
+                out[i] = mul(inverse, prefix[i-1]);
+                inverse = mul(inverse, x[i]);
+            }
+        }
+    }
+
+    /**
+     * raise element to the power, negative exponent raises the inverse
+     * @param el1
+     * @param exponent
+     * @return el1^exponent
+     */
+    public abstract FiniteFieldElement pow(FiniteFieldElement el1, BigInteger exponent);
+    
+    /**
+     * find square root of element
+     * @param el1
+     * @return x such that x*x = el1
+     * @throws RuntimeException if el1 is not a square
+     */
+    public abstract FiniteFieldElement sqrt(FiniteFieldElement el1);
     
     /**
      * find the rest of element which belongs to the field
@@ -83,6 +199,170 @@ public abstract class FiniteFieldElementArithmetics{
      */
     public abstract FiniteFieldElement complement(FiniteFieldElement el1);
     
+    /**
+     * trace of the element of binary extension field GF(2^m),
+     * el1 + el1^2 + el1^4 + ... + el1^(2^(m-1))
+     * @param el1
+     * @return 0 or 1
+     */
+    public FiniteFieldElement trace(FiniteFieldElement el1){
+        throw new RuntimeException("trace is defined only for binary extension field");
+    }
+    
+    /**
+     * half-trace of the element of binary extension field GF(2^m) with odd m,
+     * el1 + el1^4 + el1^16 + ... + el1^(2^(m-1))
+     * @param el1
+     * @return 
+     */
+    public FiniteFieldElement halfTrace(FiniteFieldElement el1){
+        throw new RuntimeException("half-trace is defined only for binary extension field of odd degree");
+    }
+    
+    /**
+     * solve z^2 + z = el1 in binary extension field,
+     * the other solution is z + 1
+     * @param el1
+     * @return z
+     * @throws RuntimeException if the trace of el1 is not zero, so there is no solution
+     */
+    public FiniteFieldElement solveQuadratic(FiniteFieldElement el1){
+        throw new RuntimeException("quadratic equation z^2 + z = c is solved only in binary extension field");
+    }
+    
+    /**
+     * creates the reusable element for the in-place operations,
+     * the operations accept only the elements created by the same arithmetics
+     * @return zero element
+     */
+    public MutableFiniteFieldElement newMutableElement(){
+        return new MutableFiniteFieldElement(Limbs.length(getField().getSize().bitLength()), 0);
+    }
+    
+    /**
+     * dst = el1
+     * @param dst
+     * @param el1
+     */
+    public void load(MutableFiniteFieldElement dst, FiniteFieldElement el1){
+        Limbs.fromBigInteger(mod(el1), dst.words);
+    }
+    
+    /**
+     * @param src
+     * @return the value of src as immutable element
+     */
+    public FiniteFieldElement store(MutableFiniteFieldElement src){
+        return getElementFactory().createFrom(Limbs.toMagnitude(src.words));
+    }
+    
+    /**
+     * dst = src
+     * @param dst
+     * @param src 
+     */
+    public void set(MutableFiniteFieldElement dst, MutableFiniteFieldElement src){
+        System.arraycopy(src.words, 0, dst.words, 0, dst.words.length);
+    }
+    
+    /**
+     * @param el1
+     * @return true if el1 = 0
+     */
+    public boolean isZero(MutableFiniteFieldElement el1){
+        return Limbs.isZero(el1.words);
+    }
+    
+    /**
+     * @param el1
+     * @param el2
+     * @return true if el1 = el2
+     */
+    public boolean isEqual(MutableFiniteFieldElement el1, MutableFiniteFieldElement el2){
+        long acc = 0;
+        for(int i=0;i<el1.words.length;i++) acc |= el1.words[i]^el2.words[i];
+        return acc==0;
+    }
+    
+    /*
+     * the in-place operations below write the result to dst which may be 
+     * the same object as any of the arguments, the default implementations
+     * go through the immutable elements and are overridden by the engines
+     */
+    
+    /**
+     * dst = el1 + el2
+     */
+    public void addInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2){
+        load(dst, add(store(el1), store(el2)));
+    }
+    
+    /**
+     * dst = el1 - el2
+     */
+    public void subInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2){
+        load(dst, sub(store(el1), store(el2)));
+    }
+    
+    /**
+     * dst = el1*el2
+     */
+    public void mulInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2){
+        load(dst, mul(store(el1), store(el2)));
+    }
+    
+    /**
+     * dst = el1*el1
+     */
+    public void sqrInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1){
+        load(dst, sqr(store(el1)));
+    }
+    
+    /**
+     * dst = el1^-1
+     */
+    public void invInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1){
+        load(dst, inv(store(el1)));
+    }
+    
+    /**
+     * dst = -el1
+     */
+    public void complementInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1){
+        load(dst, complement(store(el1)));
+    }
+    
+    /**
+     * dst = k*el1
+     */
+    public void mulSmallInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, int k){
+        load(dst, mulSmall(store(el1), k));
+    }
+    
+    /**
+     * dst = el1^(1/2)
+     */
+    public void sqrtInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1){
+        load(dst, sqrt(store(el1)));
+    }
+    
+    /**
+     * dst = H(el1), binary extension field of odd degree only
+     * @see #halfTrace(FiniteFieldElement)
+     */
+    public void halfTraceInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1){
+        load(dst, halfTrace(store(el1)));
+    }
+    
+    /**
+     * @param el1
+     * @return Tr(el1), 0 or 1, binary extension field only
+     * @see #trace(FiniteFieldElement)
+     */
+    public int trace(MutableFiniteFieldElement el1){
+        return trace(store(el1)).signum();
+    }
+    
     /**
      * 
      * @return the field over which this arithmetics is performed
@@ -107,16 +387,86 @@ public abstract class FiniteFieldElementArithmetics{
     /**
      * static factory method to create the arithmetics based on order
      * if fieldOrder instanceof BigInteger -> creates PrimeFieldElementArithmetics
-     * if fieldOrder instanceof BinaryExtensionFieldElement -> creates BinaryExtensionFieldElementArithmetics
+     * which picks up the fast reduction if order is one of the NIST primes
+     * or has the form 2^n - c with small c, otherwise Barrett reduction,
+     * odd orders less than 2^128 get the two-word Montgomery arithmetics,
+     * primes less than 2^20 get the logarithm tables
+     * if fieldOrder instanceof BinaryExtensionFieldElement -> creates WordBinaryExtensionFieldElementArithmetics
      * @param fieldOrder
      * @return 
      */
     public static FiniteFieldElementArithmetics createFieldElementArithmetics(BigInteger fieldOrder){
         if(fieldOrder instanceof BinaryExtensionFieldElement) return createFieldElementArithmetics((BinaryExtensionFieldElement)fieldOrder);
+        if(fieldOrder.signum()>0 && fieldOrder.bitLength()<=LogTable.MAX_BITS && fieldOrder.isProbablePrime(32)){
+            LogTable table = LogTable.forPrime(fieldOrder.intValue());
+            if(table != null) return new TablePrimeFieldElementArithmetics(new PrimeField(fieldOrder), new FiniteFieldElementFactory(), table);
+        }
+        if(fieldOrder.testBit(0) && fieldOrder.bitLength()<=128) return new TwoWordPrimeFieldElementArithmetics(new PrimeField(fieldOrder), new FiniteFieldElementFactory());
         return new PrimeFieldElementArithmetics(new PrimeField(fieldOrder), new FiniteFieldElementFactory());
     }
     
+    /**
+     * static factory method to create the prime field arithmetics 
+     * with the specified reduction method
+     * @param fieldOrder
+     * @param reduction
+     * @return 
+     */
+    public static FiniteFieldElementArithmetics createFieldElementArithmetics(BigInteger fieldOrder, PrimeFieldReduction reduction){
+        if(fieldOrder instanceof BinaryExtensionFieldElement) throw new RuntimeException("reduction can be specified only for prime field");
+        switch(reduction){
+            case MONTGOMERY:
+                return new MontgomeryPrimeFieldElementArithmetics(new PrimeField(fieldOrder), new FiniteFieldElementFactory());
+            case SOLINAS:
+                return createPrimeFieldElementArithmetics(fieldOrder, SolinasPrimeFieldReducer.forPrime(fieldOrder));
+            case PSEUDO_MERSENNE:
+                return createPrimeFieldElementArithmetics(fieldOrder, PseudoMersennePrimeFieldReducer.forPrime(fieldOrder));
+            case BARRETT:
+                PrimeField field = new PrimeField(fieldOrder);
+                return new PrimeFieldElementArithmetics(field, new FiniteFieldElementFactory(), new BarrettPrimeFieldReducer(field));
+            default:
+                return new PrimeFieldElementArithmetics(new PrimeField(fieldOrder), new FiniteFieldElementFactory(), null);
+        }
+    }
+    
+    private static FiniteFieldElementArithmetics createPrimeFieldElementArithmetics(BigInteger fieldOrder, PrimeFieldReducer reducer){
+        if(reducer == null) throw new RuntimeException("reduction is not applicable to the field order "+fieldOrder);
+        return new PrimeFieldElementArithmetics(new PrimeField(fieldOrder), new FiniteFieldElementFactory(), reducer);
+    }
+    
+    /**
+     * static factory method to create the binary extension field arithmetics,
+     * the fields GF(2^m) with m &lt;= 20 get the logarithm tables
+     * @param fieldIrreduciblePoly
+     * @return 
+     */
     public static FiniteFieldElementArithmetics createFieldElementArithmetics(BinaryExtensionFieldElement fieldIrreduciblePoly){
-        return new BinaryExtensionFieldElementArithmetics(new BinaryExtensionField(fieldIrreduciblePoly), new BinaryExtensionFieldElementFactory());
+        if(fieldIrreduciblePoly.bitLength()<=LogTable.MAX_BITS+1){
+            LogTable table = LogTable.forBinary(fieldIrreduciblePoly.intValue());
+            if(table != null) return new TableBinaryExtensionFieldElementArithmetics(new BinaryExtensionField(fieldIrreduciblePoly), new BinaryExtensionFieldElementFactory(), table);
+        }
+        return new WordBinaryExtensionFieldElementArithmetics(new BinaryExtensionField(fieldIrreduciblePoly), new BinaryExtensionFieldElementFactory());
+    }
+    
+    /**
+     * static factory method to create the binary extension field arithmetics 
+     * with the specified multiplication method
+     * @param fieldIrreduciblePoly
+     * @param multiplication
+     * @return 
+     */
+    public static FiniteFieldElementArithmetics createFieldElementArithmetics(BinaryExtensionFieldElement fieldIrreduciblePoly, BinaryFieldMultiplication multiplication){
+        return new WordBinaryExtensionFieldElementArithmetics(new BinaryExtensionField(fieldIrreduciblePoly), new BinaryExtensionFieldElementFactory(), multiplication, BinaryFieldInversion.EUCLID);
+    }
+    
+    /**
+     * static factory method to create the binary extension field arithmetics 
+     * with the specified inversion method
+     * @param fieldIrreduciblePoly
+     * @param inversion
+     * @return 
+     */
+    public static FiniteFieldElementArithmetics createFieldElementArithmetics(BinaryExtensionFieldElement fieldIrreduciblePoly, BinaryFieldInversion inversion){
+        return new WordBinaryExtensionFieldElementArithmetics(new BinaryExtensionField(fieldIrreduciblePoly), new BinaryExtensionFieldElementFactory(), inversion);
     }
 }
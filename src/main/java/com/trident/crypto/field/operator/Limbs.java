@@ -0,0 +1,298 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * helpers for multi-precision numbers stored as little-endian arrays
+ * of unsigned 64-bit limbs, i.e. a[0] holds the least significant word
+ * @author trident
+ */
+final class Limbs {
+
+    private Limbs(){}
+
+    /**
+     * number of 64-bit limbs required to hold the provided amount of bits
+     * @param bits
+     * @return
+     */
+    static int length(int bits){
+        return (bits+63)>>>6;
+    }
+
+    /**
+     * convert non negative BigInteger to limbs
+     * @param value
+     * @param length - number of limbs of the result
+     * @return
+     */
+    static long[] fromBigInteger(BigInteger value, int length){
+        long[] r = new long[length];
+        fromBigInteger(value, r);
+        return r;
+    }
+
+    /**
+     * convert non negative BigInteger to limbs writing the result to r
+     * @param value
+     * @param r
+     */
+    static void fromBigInteger(BigInteger value, long[] r){
+        if(value.signum()<0) throw new RuntimeException("biginteger should not be negative");
+        if(value.bitLength()>64*r.length) throw new RuntimeException("value does not fit into "+r.length+" limbs");
+        byte[] bytes = value.toByteArray();
+        Arrays.fill(r, 0L);
+        for(int i=0, j=bytes.length-1; j>=0 && i<8*r.length; i++, j--){
+            r[i>>>3] |= (bytes[j]&0xFFL)<<((i&7)<<3);
+        }
+    }
+
+    /**
+     * @param a
+     * @return big-endian unsigned magnitude of a without leading zero bytes
+     */
+    static byte[] toMagnitude(long[] a){
+        int top = a.length-1;
+        while(top>=0 && a[top]==0) top--;
+        if(top<0) return new byte[0];
+        int bytes = 8*top + 8 - (Long.numberOfLeadingZeros(a[top])>>>3);
+        byte[] r = new byte[bytes];
+        for(int i=0, j=bytes-1; j>=0; i++, j--){
+            r[j] = (byte)(a[i>>>3]>>>((i&7)<<3));
+        }
+        return r;
+    }
+
+    static BigInteger toBigInteger(long[] a){
+        return new BigInteger(1, toMagnitude(a));
+    }
+
+    /**
+     * high word of the unsigned 128-bit product x*y,
+     * portable replacement of Math.multiplyHigh which also is signed and requires java 9
+     * @param x
+     * @param y
+     * @return
+     */
+    static long mulHigh(long x, long y){
+        long x0 = x&0xFFFFFFFFL, x1 = x>>>32;
+        long y0 = y&0xFFFFFFFFL, y1 = y>>>32;
+        long w0 = x0*y0;
+        long t = x1*y0 + (w0>>>32);
+        long w1 = (t&0xFFFFFFFFL) + x0*y1;
+        return x1*y1 + (t>>>32) + (w1>>>32);
+    }
+
+    /**
+     * @param x
+     * @param y
+     * @param s = x + y
+     * @return carry (0 or 1) of the addition s = x + y
+     */
+    static long carry(long x, long y, long s){
+        return ((x&y)|((x|y)&~s))>>>63;
+    }
+
+    /**
+     * @param x
+     * @param y
+     * @param d = x - y
+     * @return borrow (0 or 1) of the subtraction d = x - y
+     */
+    static long borrow(long x, long y, long d){
+        return ((~x&y)|((~(x^y))&d))>>>63;
+    }
+
+    static boolean isZero(long[] a){
+        long acc = 0;
+        for(long l: a) acc |= l;
+        return acc==0;
+    }
+
+    /**
+     * unsigned comparison of numbers with equal limbs count
+     * @param a
+     * @param b
+     * @return -1, 0 or 1 as a is less than, equal to, or greater than b
+     */
+    static int compare(long[] a, long[] b){
+        for(int i=a.length-1;i>=0;i--){
+            if(a[i]!=b[i]) return Long.compareUnsigned(a[i], b[i]);
+        }
+        return 0;
+    }
+
+    /**
+     * r = a + b, all of the same length, r may alias a or b
+     * @return the carry out
+     */
+    static long add(long[] r, long[] a, long[] b){
+        long c = 0;
+        for(int i=0;i<r.length;i++){
+            long x = a[i], y = b[i];
+            long s = x + y;
+            long c1 = carry(x, y, s);
+            long t = s + c;
+            r[i] = t;
+            c = c1 | carry(s, c, t);
+        }
+        return c;
+    }
+
+    /**
+     * r = a - b, all of the same length, r may alias a or b
+     * @return the borrow out
+     */
+    static long sub(long[] r, long[] a, long[] b){
+        long c = 0;
+        for(int i=0;i<r.length;i++){
+            long x = a[i], y = b[i];
+            long d = x - y;
+            long c1 = borrow(x, y, d);
+            long t = d - c;
+            r[i] = t;
+            c = c1 | borrow(d, c, t);
+        }
+        return c;
+    }
+
+    /**
+     * @return the borrow out of a - b without storing the difference
+     */
+    static long subBorrow(long[] a, long[] b){
+        long c = 0;
+        for(int i=0;i<a.length;i++){
+            long x = a[i], y = b[i];
+            long d = x - y;
+            long c1 = borrow(x, y, d);
+            long t = d - c;
+            c = c1 | borrow(d, c, t);
+        }
+        return c;
+    }
+
+    /**
+     * r = a - (mask &amp; b) where mask is 0 or -1, branch-free
+     * @return the borrow out
+     */
+    static long subMasked(long[] r, long[] a, long[] b, long mask){
+        long c = 0;
+        for(int i=0;i<r.length;i++){
+            long x = a[i], y = b[i]&mask;
+            long d = x - y;
+            long c1 = borrow(x, y, d);
+            long t = d - c;
+            r[i] = t;
+            c = c1 | borrow(d, c, t);
+        }
+        return c;
+    }
+
+    /**
+     * r = a + (mask &amp; b) where mask is 0 or -1, branch-free
+     * @return the carry out
+     */
+    static long addMasked(long[] r, long[] a, long[] b, long mask){
+        long c = 0;
+        for(int i=0;i<r.length;i++){
+            long x = a[i], y = b[i]&mask;
+            long s = x + y;
+            long c1 = carry(x, y, s);
+            long t = s + c;
+            r[i] = t;
+            c = c1 | carry(s, c, t);
+        }
+        return c;
+    }
+
+    /**
+     * schoolbook product r = a * b
+     * @param r - 2n limbs, must not alias a or b
+     * @param a - n limbs
+     * @param b - n limbs
+     */
+    static void mul(long[] r, long[] a, long[] b){
+        int n = a.length;
+        Arrays.fill(r, 0, 2*n, 0L);
+        for(int i=0;i<n;i++){
+            long bi = b[i];
+            long c = 0;
+            for(int j=0;j<n;j++){
+                long lo = a[j]*bi;
+                long hi = mulHigh(a[j], bi);
+                long s = lo + r[i+j];
+                hi += carry(lo, r[i+j], s);
+                long t = s + c;
+                hi += carry(s, c, t);
+                r[i+j] = t;
+                c = hi;
+            }
+            r[i+n] = c;
+        }
+    }
+
+    /**
+     * r = a * a, every cross product a[i]*a[j] with i &lt; j is computed
+     * once and doubled, then the squares a[i]^2 are added on the diagonal
+     * @param r - at least 2n limbs, must not alias a
+     * @param a - n limbs
+     */
+    static void sqr(long[] r, long[] a){
+        int n = a.length;
+        Arrays.fill(r, 0, 2*n, 0L);
+        for(int i=0;i<n;i++){
+            long ai = a[i];
+            long c = 0;
+            for(int j=i+1;j<n;j++){
+                long lo = a[j]*ai;
+                long hi = mulHigh(a[j], ai);
+                long s = lo + r[i+j];
+                hi += carry(lo, r[i+j], s);
+                long t = s + c;
+                hi += carry(s, c, t);
+                r[i+j] = t;
+                c = hi;
+            }
+            r[i+n] = c;
+        }
+        long top = 0;
+        for(int i=0;i<2*n;i++){
+            long x = r[i];
+            r[i] = (x<<1)|top;
+            top = x>>>63;
+        }
+        long c = 0;
+        for(int i=0;i<n;i++){
+            long lo = a[i]*a[i];
+            long hi = mulHigh(a[i], a[i]);
+            long x = r[2*i];
+            long s = x + lo;
+            long k = carry(x, lo, s);
+            long t = s + c;
+            k += carry(s, c, t);
+            r[2*i] = t;
+            x = r[2*i+1];
+            s = x + hi;
+            c = carry(x, hi, s);
+            t = s + k;
+            c += carry(s, k, t);
+            r[2*i+1] = t;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * logarithm and antilogarithm tables of the small field to the base of a generator g
+ * of its multiplicative group, a*b = g^(log a + log b), a^-1 = g^(q-1 - log a)
+ *
+ * the antilogarithms are stored twice, so the sum of two logarithms
+ * indexes the table without the reduction mod q-1, the tables are built
+ * once per field order or polynomial and are shared by all arithmetics of that field
+ * @author trident
+ */
+final class LogTable {
+
+    /**
+     * bits of the largest field order having the tables
+     */
+    static final int MAX_BITS = 20;
+
+    private static final int CANDIDATES = 1024; // elements tried as the generator
+
+    private static final LogTable NONE = new LogTable(0, null, null); // the field has no tables
+    private static final ConcurrentHashMap<Integer, LogTable> PRIME_TABLES = new ConcurrentHashMap<>(); // by p
+    private static final ConcurrentHashMap<Integer, LogTable> BINARY_TABLES = new ConcurrentHashMap<>(); // by polynomial
+
+    private final int size; // q-1
+    private final int[] exp; // g^i for i < 2(q-1)
+    private final int[] log; // log of the non zero elements, log[0] is unused
+
+    private LogTable(int size, int[] exp, int[] log){
+        this.size = size;
+        this.exp = exp;
+        this.log = log;
+    }
+
+    /**
+     * @param p - prime less than 2^MAX_BITS
+     * @return the tables of GF(p), null if no generator is found
+     */
+    static LogTable forPrime(int p){
+        if(p<2 || p>>>MAX_BITS!=0) return null;
+        return cached(PRIME_TABLES, p, false, p-1);
+    }
+
+    /**
+     * @param poly - bits of the polynomial of degree m &lt;= MAX_BITS
+     * @return the tables of GF(2^m), null if the polynomial is not irreducible or no generator is found
+     */
+    static LogTable forBinary(int poly){
+        int m = 31-Integer.numberOfLeadingZeros(poly);
+        if(m<1 || m>MAX_BITS) return null;
+        return cached(BINARY_TABLES, poly, true, (1<<m)-1);
+    }
+
+    private static LogTable cached(ConcurrentHashMap<Integer, LogTable> tables, int modulus, boolean binary, int size){
+        LogTable table = tables.get(modulus);
+        if(table==null){
+            table = create(modulus, binary, size);
+            if(table==null) table = NONE;
+            LogTable previous = tables.putIfAbsent(modulus, table);
+            if(previous!=null) table = previous;
+        }
+        return table==NONE ? null : table;
+    }
+
+    private static LogTable create(int modulus, boolean binary, int size){
+        int[] factors = primeFactors(size);
+        int last = Math.min(size, CANDIDATES);
+        for(int g=size==1 ? 1 : 2;g<=last;g++){
+            if(!isGenerator(g, factors, modulus, binary, size)) continue;
+            // the walk checks the order as well, a reducible polynomial has no element of order 2^m-1
+            int[] exp = new int[2*size];
+            int[] log = new int[size+1];
+            int x = 1;
+            boolean valid = true;
+            for(int i=0;i<size;i++){
+                if(x==0 || (i>0 && x==1)){
+                    valid = false;
+                    break;
+                }
+                exp[i] = exp[i+size] = x;
+                log[x] = i;
+                x = multiply(x, g, modulus, binary);
+            }
+            if(valid && x==1) return new LogTable(size, exp, log);
+        }
+        return null;
+    }
+
+    /**
+     * g^size = 1 and g^(size/f) != 1 for all prime factors f of the size
+     */
+    private static boolean isGenerator(int g, int[] factors, int modulus, boolean binary, int size){
+        if(power(g, size, modulus, binary)!=1) return false;
+        for(int f: factors) if(power(g, size/f, modulus, binary)==1) return false;
+        return true;
+    }
+
+    private static int[] primeFactors(int n){
+        int[] factors = new int[32];
+        int count = 0;
+        for(int d=2;(long)d*d<=n;d++){
+            if(n%d!=0) continue;
+            factors[count++] = d;
+            while(n%d==0) n /= d;
+        }
+        if(n>1) factors[count++] = n;
+        int[] r = new int[count];
+        System.arraycopy(factors, 0, r, 0, count);
+        return r;
+    }
+
+    private static int power(int a, int e, int modulus, boolean binary){
+        int r = 1;
+        for(int i=31-Integer.numberOfLeadingZeros(e);i>=0;i--){
+            r = multiply(r, r, modulus, binary);
+            if(((e>>>i)&1)!=0) r = multiply(r, a, modulus, binary);
+        }
+        return r;
+    }
+
+    /**
+     * a*b mod p, or the carry-less product reduced by the polynomial
+     */
+    private static int multiply(int a, int b, int modulus, boolean binary){
+        if(!binary) return (int)((long)a*b%modulus);
+        long c = 0;
+        for(;b!=0;b&=b-1) c ^= (long)a<<Integer.numberOfTrailingZeros(b);
+        int m = 31-Integer.numberOfLeadingZeros(modulus);
+        for(int i=63-Long.numberOfLeadingZeros(c);i>=m;i--){
+            if(((c>>>i)&1)!=0) c ^= (long)modulus<<(i-m);
+        }
+        return (int)c;
+    }
+
+    int mul(int a, int b){
+        if(a==0 || b==0) return 0;
+        return exp[log[a]+log[b]];
+    }
+
+    int sqr(int a){
+        if(a==0) return 0;
+        return exp[2*log[a]];
+    }
+
+    /**
+     * square root in the field of odd q-1, i.e. GF(2^m), where 2^-1 = (q-1 + 1)/2 mod q-1
+     */
+    int sqrt(int a){
+        if(a==0) return 0;
+        int l = log[a];
+        return exp[((l&1)==0 ? l : l+size)>>>1];
+    }
+
+    /**
+     * @param a - non zero
+     */
+    int inv(int a){
+        return exp[size-log[a]];
+    }
+
+    /**
+     * @param e - non negative
+     */
+    int pow(int a, BigInteger e){
+        if(e.signum()==0) return 1;
+        if(a==0) return 0;
+        return exp[(int)((long)log[a]*e.mod(BigInteger.valueOf(size)).intValue()%size)];
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import com.trident.crypto.field.PrimeField;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElementFactory;
+import java.math.BigInteger;
+
+/**
+ * arithmetics of elements in prime field based on Montgomery multiplication
+ *
+ * the values are processed as fixed-width arrays of 64-bit limbs,
+ * R = 2^(64*limbs) and the multiplication a*b*R^-1 mod p is done with
+ * coarsely integrated operand scanning (CIOS) without any division
+ *
+ * the conversion into and out of Montgomery form only happens on the
+ * boundary of the public api: mul(a, b) = montMul(montMul(a, b), R^2 mod p)
+ * @author trident
+ */
+class MontgomeryPrimeFieldElementArithmetics extends PrimeFieldElementArithmetics{
+
+    private final int length; // count of limbs
+    private final long[] p; // field order
+    private final long pInv; // -p^-1 mod 2^64
+    private final long[] r2; // R^2 mod p
+    private final long[] one; // 1, multiplication by it converts out of Montgomery form
+    private final BigInteger redcBound; // p*R, values below can be reduced with single REDC
+
+    public MontgomeryPrimeFieldElementArithmetics(PrimeField field, FiniteFieldElementFactory elementFactory){
+        super(field, elementFactory, null);
+        BigInteger order = field.getOrderP();
+        if(!order.testBit(0)) throw new RuntimeException("montgomery arithmetics requires odd field order");
+        this.length = Limbs.length(order.bitLength());
+        this.p = Limbs.fromBigInteger(order, length);
+        this.pInv = -inverse(p[0]);
+        this.r2 = Limbs.fromBigInteger(BigInteger.ONE.shiftLeft(128*length).mod(order), length);
+        this.one = new long[length];
+        this.one[0] = 1;
+        this.redcBound = order.shiftLeft(64*length);
+    }
+
+    /**
+     * inverse of odd x modulo 2^64 using Newton iteration,
+     * each step doubles the count of correct low bits
+     * @param x
+     * @return
+     */
+    private static long inverse(long x){
+        long y = x; // x*x = 1 mod 8 for odd x
+        for(int i=0;i<5;i++) y *= 2 - x*y;
+        return y;
+    }
+
+    /**
+     * r = a*b*R^-1 mod p, CIOS method
+     * @param r - result, may alias a or b
+     * @param a - less than p
+     * @param b - less than p
+     * @param t - scratch of length + 2 limbs
+     */
+    void montMul(long[] r, long[] a, long[] b, long[] t){
+        int n = length;
+        for(int i=0;i<n+2;i++) t[i] = 0;
+        for(int i=0;i<n;i++){
+            // t = t + a*b[i]
+            long bi = b[i];
+            long c = 0;
+            for(int j=0;j<n;j++){
+                long lo = a[j]*bi;
+                long hi = Limbs.mulHigh(a[j], bi);
+                long s = lo + t[j];
+                hi += Limbs.carry(lo, t[j], s);
+                long u = s + c;
+                hi += Limbs.carry(s, c, u);
+                t[j] = u;
+                c = hi;
+            }
+            long s = t[n] + c;
+            t[n+1] = Limbs.carry(t[n], c, s);
+            t[n] = s;
+
+            // t = (t + m*p)/2^64
+            long m = t[0]*pInv;
+            long lo = m*p[0];
+            c = Limbs.mulHigh(m, p[0]) + Limbs.carry(lo, t[0], lo + t[0]);
+            for(int j=1;j<n;j++){
+                lo = m*p[j];
+                long hi = Limbs.mulHigh(m, p[j]);
+                s = lo + t[j];
+                hi += Limbs.carry(lo, t[j], s);
+                long u = s + c;
+                hi += Limbs.carry(s, c, u);
+                t[j-1] = u;
+                c = hi;
+            }
+            s = t[n] + c;
+            t[n-1] = s;
+            t[n] = t[n+1] + Limbs.carry(t[n], c, s);
+        }
+        finalSubtraction(r, t, t[n]);
+    }
+
+    /**
+     * r = t*R^-1 mod p (Montgomery reduction), t is destroyed
+     * @param r - result of length limbs
+     * @param t - 2*length limbs, value less than p*R
+     */
+    void redc(long[] r, long[] t){
+        int n = length;
+        long top = 0;
+        for(int i=0;i<n;i++){
+            long m = t[i]*pInv;
+            long c = 0;
+            for(int j=0;j<n;j++){
+                long lo = m*p[j];
+                long hi = Limbs.mulHigh(m, p[j]);
+                long s = lo + t[i+j];
+                hi += Limbs.carry(lo, t[i+j], s);
+                long u = s + c;
+                hi += Limbs.carry(s, c, u);
+                t[i+j] = u;
+                c = hi;
+            }
+            // carries out of position i+n are deferred to the next round
+            long s = t[i+n] + c;
+            long c1 = Limbs.carry(t[i+n], c, s);
+            long u = s + top;
+            top = c1 + Limbs.carry(s, top, u);
+            t[i+n] = u;
+        }
+        System.arraycopy(t, n, t, 0, n);
+        finalSubtraction(r, t, top);
+    }
+
+    /**
+     * r = t - p if (top,t) &gt;= p else t, t holds at least length limbs
+     * @param r - must not alias t
+     * @param t
+     * @param top - the bit above the length limbs of t
+     */
+    private void finalSubtraction(long[] r, long[] t, long top){
+        int n = length;
+        long borrow = 0;
+        for(int i=0;i<n;i++){
+            long d = t[i] - p[i];
+            long b1 = Limbs.borrow(t[i], p[i], d);
+            long e = d - borrow;
+            borrow = b1 | Limbs.borrow(d, borrow, e);
+            r[i] = e;
+        }
+        // keep t if the subtraction borrowed and there was no top bit
+        long keep = -(borrow & ~top & 1);
+        for(int i=0;i<n;i++) r[i] = (t[i] & keep) | (r[i] & ~keep);
+    }
+
+    /**
+     * @param el1
+     * @return limbs of the element reduced modulo p
+     */
+    private long[] toLimbs(FiniteFieldElement el1){
+        if(el1.signum()<0 || el1.compareTo(getField().getOrderP())>=0) el1 = mod(el1);
+        return Limbs.fromBigInteger(el1, length);
+    }
+
+    private FiniteFieldElement toElement(long[] a){
+        return getElementFactory().createFrom(Limbs.toMagnitude(a));
+    }
+
+    /**
+     * r = a + b mod p
+     * @param r - must not alias a
+     * @param a - destroyed
+     * @param b
+     */
+    private void addMod(long[] r, long[] a, long[] b){
+        long top = Limbs.add(a, a, b);
+        finalSubtraction(r, a, top);
+    }
+
+    /**
+     * a = a - b mod p
+     */
+    private void subMod(long[] a, long[] b){
+        long borrow = Limbs.sub(a, a, b);
+        Limbs.addMasked(a, a, p, -borrow);
+    }
+
+    @Override
+    public FiniteFieldElement add(FiniteFieldElement el1, FiniteFieldElement el2) {
+        long[] a = toLimbs(el1);
+        long[] b = toLimbs(el2);
+        long[] r = new long[length];
+        addMod(r, a, b);
+        return toElement(r);
+    }
+
+    @Override
+    public FiniteFieldElement sub(FiniteFieldElement el1, FiniteFieldElement el2) {
+        long[] a = toLimbs(el1);
+        long[] b = toLimbs(el2);
+        subMod(a, b);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement mul(FiniteFieldElement el1, FiniteFieldElement el2) {
+        if(el1.equals(BigInteger.ZERO)||el2.equals(BigInteger.ZERO)) return getElementFactory().createFrom(BigInteger.ZERO);
+        long[] a = toLimbs(el1);
+        long[] b = toLimbs(el2);
+        long[] t = new long[length+2];
+        montMul(a, a, b, t); // a*b*R^-1
+        montMul(a, a, r2, t); // a*b
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement mulAdd(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        long[] a = toLimbs(el1);
+        long[] b = toLimbs(el2);
+        long[] t = new long[length+2];
+        montMul(a, a, b, t);
+        montMul(a, a, r2, t);
+        addMod(b, a, toLimbs(el3));
+        return toElement(b);
+    }
+
+    @Override
+    public FiniteFieldElement mulSub(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        long[] a = toLimbs(el1);
+        long[] b = toLimbs(el2);
+        long[] t = new long[length+2];
+        montMul(a, a, b, t);
+        montMul(a, a, r2, t);
+        subMod(a, toLimbs(el3));
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement addMul(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        long[] a = toLimbs(el1);
+        long[] s = new long[length];
+        addMod(s, a, toLimbs(el2));
+        long[] t = new long[length+2];
+        montMul(s, s, toLimbs(el3), t);
+        montMul(s, s, r2, t);
+        return toElement(s);
+    }
+
+    /**
+     * the products stay in Montgomery form until their sum is converted back,
+     * so it takes three Montgomery multiplications instead of four
+     */
+    @Override
+    public FiniteFieldElement sumOfProducts(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3, FiniteFieldElement el4) {
+        long[] a = toLimbs(el1);
+        long[] c = toLimbs(el3);
+        long[] t = new long[length+2];
+        montMul(a, a, toLimbs(el2), t); // a*b*R^-1
+        montMul(c, c, toLimbs(el4), t); // c*d*R^-1
+        long[] r = new long[length];
+        addMod(r, a, c);
+        montMul(r, r, r2, t); // a*b + c*d
+        return toElement(r);
+    }
+
+    @Override
+    public FiniteFieldElement sqr(FiniteFieldElement el1) {
+        long[] a = toLimbs(el1);
+        long[] t = new long[2*length+2];
+        Limbs.sqr(t, a);
+        redc(a, t); // a^2*R^-1
+        montMul(a, a, r2, t); // a^2
+        return toElement(a);
+    }
+
+    @Override
+    FiniteFieldElement pow(FiniteFieldElement el1, AdditionChain chain) {
+        if(chain == null) return super.pow(el1, chain);
+        long[] a = toLimbs(el1);
+        long[] t = new long[2*length+2];
+        montMul(a, a, r2, t); // into Montgomery form
+        chain.evaluate(a, a, multiplier(), t);
+        montMul(a, a, one, t); // out of Montgomery form
+        return toElement(a);
+    }
+
+    /**
+     * the scratch passed to the multiplication has 2*length + 2 limbs
+     * @return Montgomery multiplication
+     */
+    @Override
+    AdditionChain.Multiplier multiplier() {
+        return new AdditionChain.Multiplier() {
+            @Override
+            public void mul(long[] r, long[] x, long[] y, long[] t) {
+                montMul(r, x, y, t);
+            }
+
+            @Override
+            public void sqr(long[] r, long[] x, long[] t) {
+                Limbs.sqr(t, x);
+                redc(r, t);
+            }
+        };
+    }
+
+    /**
+     * the mutable elements are kept in Montgomery form, the addition, 
+     * subtraction and the inversion chain are inherited as they do not depend on it
+     */
+    @Override
+    public MutableFiniteFieldElement newMutableElement() {
+        return new MutableFiniteFieldElement(length, 2*length+2);
+    }
+
+    @Override
+    public void load(MutableFiniteFieldElement dst, FiniteFieldElement el1) {
+        Limbs.fromBigInteger(mod(el1), dst.words);
+        montMul(dst.words, dst.words, r2, dst.wide);
+    }
+
+    @Override
+    public FiniteFieldElement store(MutableFiniteFieldElement src) {
+        montMul(src.temp, src.words, one, src.wide);
+        return toElement(src.temp);
+    }
+
+    @Override
+    public void mulInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        montMul(dst.words, el1.words, el2.words, dst.wide);
+    }
+
+    @Override
+    public void sqrInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        Limbs.sqr(dst.wide, el1.words);
+        redc(dst.words, dst.wide);
+    }
+
+    @Override
+    public FiniteFieldElement mod(FiniteFieldElement el1) {
+        if(el1.signum()<0 || el1.compareTo(redcBound)>=0) return super.mod(el1);
+        if(el1.compareTo(getField().getOrderP())<0) return el1;
+        long[] t = new long[2*length+2];
+        Limbs.fromBigInteger(el1, t);
+        long[] a = new long[length];
+        redc(a, t); // el1*R^-1
+        montMul(a, a, r2, t); // el1
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement complement(FiniteFieldElement el1) {
+        long[] a = toLimbs(el1);
+        if(Limbs.isZero(a)) return getElementFactory().createFrom(BigInteger.ZERO);
+        Limbs.sub(a, p, a);
+        return toElement(a);
+    }
+}
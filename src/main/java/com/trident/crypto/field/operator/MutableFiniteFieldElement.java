@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+/**
+ * reusable field element for the in-place arithmetics, i.e.
+ * FiniteFieldElementArithmetics.mulInto(dst, a, b)
+ *
+ * the value is kept in the fixed-size array of 64-bit words in the
+ * representation of the arithmetics which created it (e.g. Montgomery form),
+ * so it can only be passed to that arithmetics, the conversion from and to
+ * FiniteFieldElement is done by load and store
+ * @see FiniteFieldElementArithmetics#newMutableElement()
+ * @author trident
+ */
+public final class MutableFiniteFieldElement {
+
+    final long[] words; // the value
+    final long[] temp; // scratch of the same length as the value
+    final long[] wide; // scratch for the unreduced products
+    long[][] powers; // table of the inversion chain, allocated by the first inversion into this element
+
+    MutableFiniteFieldElement(int length, int wideLength){
+        this.words = new long[length];
+        this.temp = new long[length];
+        this.wide = new long[wideLength];
+    }
+}
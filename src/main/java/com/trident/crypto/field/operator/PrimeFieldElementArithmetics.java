@@ -20,15 +20,105 @@ import com.trident.crypto.field.element.FiniteFieldElement;
 import com.trident.crypto.field.element.FiniteFieldElementFactory;
 import com.trident.crypto.field.exception.MultiplicativeGroupException;
 import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
+ * arithmetics of elements in prime field
+ * 
+ * the reduction is done by the division free reducer chosen 
+ * by the form of the field order, BigInteger division is the fallback
  *
+ * inversion is done by Fermat's little theorem x^-1 = x^(p-2), by modInverse if p
+ * is not prime, square root by x^((p+1)/4) for p = 3 mod 4, by Atkin's formula
+ * for p = 5 mod 8 and by Tonelli-Shanks algorithm for p = 1 mod 8, the addition
+ * chains of the exponents are built once per field on the first use
  * @author trident
  */
 class PrimeFieldElementArithmetics extends FiniteFieldElementArithmetics{
     
+    private static final AdditionChain NONE = AdditionChain.slidingWindow(BigInteger.ONE); // a chain computed to be absent
+    
+    private final PrimeFieldReducer reducer; // null if BigInteger division is used
+    private final int length; // count of 64-bit limbs of the field order
+    private final int wideLength; // limbs of the products with the scratch of the reducer
+    private final long[] order; // limbs of the field order
+    private final BigInteger orderSquared; // values below can be passed to reducer
+    private volatile AdditionChain inverseChain; // p-2, NONE if zero or the order is not prime, lazily computed
+    private volatile AdditionChain sqrtChain; // (p+1)/4, (p-5)/8 or (q-1)/2 where p-1 = q*2^s, NONE if zero, lazily computed
+    private final int twoAdicity; // s where p-1 = q*2^s, q is odd
+    private volatile FiniteFieldElement rootOfUnity; // z^q for quadratic non residue z, lazily computed
+    private volatile AdditionChain.Multiplier chainMultiplier; // multiplication of the mutable elements, lazily created
+    
     public PrimeFieldElementArithmetics(PrimeField field, FiniteFieldElementFactory elementFactory){
+        this(field, elementFactory, reducerFor(field));
+    }
+    
+    PrimeFieldElementArithmetics(PrimeField field, FiniteFieldElementFactory elementFactory, PrimeFieldReducer reducer){
         super(field, elementFactory);
+        this.reducer = reducer;
+        this.length = Limbs.length(field.getOrderP().bitLength());
+        this.wideLength = 2*length + (reducer == null ? 0 : reducer.scratchLength());
+        this.order = Limbs.fromBigInteger(field.getOrderP(), length);
+        this.orderSquared = field.getOrderP().multiply(field.getOrderP());
+        this.twoAdicity = field.getOrderP().subtract(BigInteger.ONE).getLowestSetBit();
+    }
+
+    private static AdditionChain chain(BigInteger exponent){
+        return exponent.signum()>0 ? AdditionChain.slidingWindow(exponent) : null;
+    }
+
+    /**
+     * Fermat inversion is valid for prime orders only, the others are left to modInverse
+     * @return the chain of p-2, null if the order is not an odd prime
+     */
+    private AdditionChain inverseChain(){
+        AdditionChain c = inverseChain;
+        if(c == null){
+            BigInteger p = getField().getOrderP();
+            c = p.testBit(0) && p.isProbablePrime(32) ? chain(p.subtract(BigInteger.valueOf(2))) : null;
+            if(c == null) c = NONE;
+            inverseChain = c;
+        }
+        return c == NONE ? null : c;
+    }
+
+    /**
+     * @return the chain of the exponent of the square root for the residue of p mod 8, null if zero
+     */
+    private AdditionChain sqrtChain(){
+        AdditionChain c = sqrtChain;
+        if(c == null){
+            BigInteger p = getField().getOrderP();
+            switch(p.intValue()&7){
+                case 3:
+                case 7:
+                    c = chain(p.add(BigInteger.ONE).shiftRight(2));
+                    break;
+                case 5:
+                    c = chain(p.shiftRight(3));
+                    break;
+                case 1:
+                    c = chain(p.shiftRight(twoAdicity+1));
+                    break;
+                default:
+                    c = null;
+            }
+            if(c == null) c = NONE;
+            sqrtChain = c;
+        }
+        return c == NONE ? null : c;
+    }
+
+    /**
+     * @param field
+     * @return the fastest reducer applicable to the order of the provided field,
+     * Barrett reduction if the order has no special form
+     */
+    static PrimeFieldReducer reducerFor(PrimeField field){
+        PrimeFieldReducer reducer = SolinasPrimeFieldReducer.forPrime(field.getOrderP());
+        if(reducer == null) reducer = PseudoMersennePrimeFieldReducer.forPrime(field.getOrderP());
+        if(reducer == null) reducer = new BarrettPrimeFieldReducer(field);
+        return reducer;
     }
 
     @Override
@@ -47,14 +137,260 @@ class PrimeFieldElementArithmetics extends FiniteFieldElementArithmetics{
         return mod(getElementFactory().createFrom(el1.multiply(el2)));
     }
 
+    @Override
+    public FiniteFieldElement mulAdd(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        return mod(getElementFactory().createFrom(el1.multiply(el2).add(el3))); // (p-1)^2 + p-1 < p^2
+    }
+
+    @Override
+    public FiniteFieldElement mulSub(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        BigInteger s = el1.multiply(el2).add(getField().getOrderP()).subtract(el3);
+        if(s.signum()<0) s = s.mod(getField().getOrderP()); // el3 was not reduced
+        return mod(getElementFactory().createFrom(s));
+    }
+
+    @Override
+    public FiniteFieldElement addMul(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        BigInteger s = el1.add(el2);
+        if(s.compareTo(getField().getOrderP())>=0) s = s.subtract(getField().getOrderP());
+        return mod(getElementFactory().createFrom(s.multiply(el3)));
+    }
+
+    @Override
+    public FiniteFieldElement sumOfProducts(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3, FiniteFieldElement el4) {
+        BigInteger s = el1.multiply(el2).add(el3.multiply(el4));
+        if(s.compareTo(orderSquared)>=0) s = s.subtract(orderSquared);
+        return mod(getElementFactory().createFrom(s));
+    }
+
+    @Override
+    public FiniteFieldElement mulSmall(FiniteFieldElement el1, int k) {
+        if(k<0) return complement(mulSmall(el1, -k));
+        return mod(getElementFactory().createFrom(el1.multiply(BigInteger.valueOf(k))));
+    }
+
+    @Override
+    public FiniteFieldElement sqr(FiniteFieldElement el1) {
+        if(reducer==null) return mod(getElementFactory().createFrom(el1.pow(2)));
+        long[] a = Limbs.fromBigInteger(mod(el1), length);
+        long[] t = new long[wideLength];
+        Limbs.sqr(t, a);
+        reducer.reduce(a, t);
+        return getElementFactory().createFrom(Limbs.toMagnitude(a));
+    }
+
     @Override
     public FiniteFieldElement inv(FiniteFieldElement el1) {
-        if(el1.equals(BigInteger.ZERO)) throw new MultiplicativeGroupException();
-        return getElementFactory().createFrom(mod(el1).modInverse(getField().getOrderP()));
+        FiniteFieldElement x = mod(el1);
+        if(x.equals(BigInteger.ZERO)) throw new MultiplicativeGroupException();
+        AdditionChain c = inverseChain();
+        if(c == null) return getElementFactory().createFrom(x.modInverse(getField().getOrderP()));
+        return pow(x, c);
+    }
+
+    @Override
+    public FiniteFieldElement pow(FiniteFieldElement el1, BigInteger exponent) {
+        if(exponent.signum()<0) return pow(inv(el1), exponent.negate());
+        return pow(mod(el1), chain(exponent));
+    }
+
+    @Override
+    public FiniteFieldElement sqrt(FiniteFieldElement el1) {
+        FiniteFieldElement x = mod(el1);
+        if(x.equals(BigInteger.ZERO)) return x;
+        FiniteFieldElement r;
+        switch(getField().getOrderP().intValue()&7){
+            case 3:
+            case 7:
+                r = pow(x, sqrtChain());
+                break;
+            case 5:
+                // t = (2x)^((p-5)/8), i = 2x*t^2 = sqrt(-1), r = x*t*(i-1)
+                FiniteFieldElement x2 = add(x, x);
+                FiniteFieldElement t = pow(x2, sqrtChain());
+                FiniteFieldElement i = mul(x2, sqr(t));
+                r = mul(mul(x, t), sub(i, getElementFactory().createFrom(BigInteger.ONE)));
+                break;
+            case 1:
+                r = tonelliShanks(x);
+                break;
+            default:
+                r = x; // p = 2
+        }
+        if(!sqr(r).equals(x)) throw new RuntimeException("element has no square root in the field");
+        return r;
+    }
+
+    /**
+     * @param x - non zero element
+     * @return square root of x for p = 1 mod 8
+     */
+    private FiniteFieldElement tonelliShanks(FiniteFieldElement x){
+        FiniteFieldElement w = pow(x, sqrtChain()); // x^((q-1)/2)
+        FiniteFieldElement r = mul(x, w); // x^((q+1)/2)
+        FiniteFieldElement b = mul(r, w); // x^q
+        FiniteFieldElement c = getRootOfUnity();
+        int m = twoAdicity;
+        while(!b.equals(BigInteger.ONE)){
+            int i = 0;
+            for(FiniteFieldElement b2 = b; !b2.equals(BigInteger.ONE); b2 = sqr(b2)){
+                if(++i==m) throw new RuntimeException("element has no square root in the field");
+            }
+            FiniteFieldElement g = c;
+            for(int j=0;j<m-i-1;j++) g = sqr(g);
+            r = mul(r, g);
+            c = sqr(g);
+            b = mul(b, c);
+            m = i;
+        }
+        return r;
+    }
+
+    /**
+     * @return z^q where z is the least quadratic non residue and p-1 = q*2^s
+     */
+    private FiniteFieldElement getRootOfUnity(){
+        FiniteFieldElement c = rootOfUnity;
+        if(c == null){
+            BigInteger p = getField().getOrderP();
+            BigInteger pm = p.subtract(BigInteger.ONE);
+            BigInteger z = BigInteger.valueOf(2);
+            while(!z.modPow(pm.shiftRight(1), p).equals(pm)) z = z.add(BigInteger.ONE);
+            c = getElementFactory().createFrom(z.modPow(pm.shiftRight(twoAdicity), p));
+            rootOfUnity = c;
+        }
+        return c;
+    }
+
+    /**
+     * @param el1 - element less than p
+     * @param chain - addition chain of the exponent, null stands for zero exponent
+     * @return el1^e
+     */
+    FiniteFieldElement pow(FiniteFieldElement el1, AdditionChain chain){
+        if(chain == null) return getElementFactory().createFrom(BigInteger.ONE);
+        if(reducer == null) return getElementFactory().createFrom(el1.modPow(chain.getExponent(), getField().getOrderP()));
+        long[] a = Limbs.fromBigInteger(el1, length);
+        chain.evaluate(a, a, multiplier(), new long[wideLength]);
+        return getElementFactory().createFrom(Limbs.toMagnitude(a));
+    }
+
+    /**
+     * the scratch passed to the multiplication has the wide length of the mutable elements
+     * @return multiplication in the representation of the mutable elements,
+     * null if there is no limb arithmetics
+     */
+    AdditionChain.Multiplier multiplier(){
+        if(reducer == null) return null;
+        return new AdditionChain.Multiplier() {
+            @Override
+            public void mul(long[] r, long[] x, long[] y, long[] t) {
+                Limbs.mul(t, x, y);
+                reducer.reduce(r, t);
+            }
+
+            @Override
+            public void sqr(long[] r, long[] x, long[] t) {
+                Limbs.sqr(t, x);
+                reducer.reduce(r, t);
+            }
+        };
+    }
+
+    @Override
+    public MutableFiniteFieldElement newMutableElement() {
+        return new MutableFiniteFieldElement(length, wideLength);
+    }
+
+    /**
+     * r = a + b mod p, branch-free, r may alias a or b
+     */
+    private void addMod(long[] r, long[] a, long[] b){
+        long carry = Limbs.add(r, a, b);
+        long borrow = Limbs.subBorrow(r, order);
+        Limbs.subMasked(r, r, order, -((carry | (borrow^1)) & 1));
+    }
+
+    @Override
+    public void addInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        addMod(dst.words, el1.words, el2.words);
+    }
+
+    @Override
+    public void subInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        long borrow = Limbs.sub(dst.words, el1.words, el2.words);
+        Limbs.addMasked(dst.words, dst.words, order, -borrow);
+    }
+
+    @Override
+    public void complementInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        long mask = Limbs.isZero(el1.words) ? 0 : -1;
+        Limbs.sub(dst.words, order, el1.words);
+        for(int i=0;i<length;i++) dst.words[i] &= mask;
+    }
+
+    /**
+     * double-and-add over the bits of k, works for any representation
+     * where the addition is the addition of the values modulo p
+     */
+    @Override
+    public void mulSmallInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, int k) {
+        if(k<0){
+            mulSmallInto(dst, el1, -k);
+            complementInto(dst, dst);
+            return;
+        }
+        long[] x = dst.temp;
+        System.arraycopy(el1.words, 0, x, 0, length);
+        Arrays.fill(dst.words, 0L);
+        for(int i=31-Integer.numberOfLeadingZeros(k);i>=0;i--){
+            addMod(dst.words, dst.words, dst.words);
+            if(((k>>>i)&1)!=0) addMod(dst.words, dst.words, x);
+        }
+    }
+
+    @Override
+    public void mulInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        if(reducer == null){
+            super.mulInto(dst, el1, el2);
+            return;
+        }
+        Limbs.mul(dst.wide, el1.words, el2.words);
+        reducer.reduce(dst.words, dst.wide);
+    }
+
+    @Override
+    public void sqrInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        if(reducer == null){
+            super.sqrInto(dst, el1);
+            return;
+        }
+        Limbs.sqr(dst.wide, el1.words);
+        reducer.reduce(dst.words, dst.wide);
+    }
+
+    @Override
+    public void invInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        if(isZero(el1)) throw new MultiplicativeGroupException();
+        AdditionChain.Multiplier m = chainMultiplier;
+        if(m == null) chainMultiplier = m = multiplier();
+        AdditionChain c = inverseChain();
+        if(m == null || c == null){
+            super.invInto(dst, el1);
+            return;
+        }
+        if(dst.powers == null) dst.powers = AdditionChain.newTable(dst.words.length);
+        c.evaluate(dst.words, el1.words, m, dst.wide, dst.powers);
     }
 
     @Override
     public FiniteFieldElement mod(FiniteFieldElement el1) {
+        if(reducer!=null && el1.signum()>=0 && el1.compareTo(orderSquared)<0){
+            if(el1.compareTo(getField().getOrderP())<0) return el1;
+            long[] r = new long[length];
+            reducer.reduce(r, Limbs.fromBigInteger(el1, wideLength));
+            return getElementFactory().createFrom(Limbs.toMagnitude(r));
+        }
         return getElementFactory().createFrom(el1.mod(getField().getOrderP()));
     }
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+/**
+ * division free reduction of the double-width values modulo prime field order
+ * @author trident
+ */
+interface PrimeFieldReducer {
+
+    /**
+     * r = t mod p
+     * @param r - the result, as many limbs as p has
+     * @param t - twice as many limbs as p has and scratchLength() more,
+     * the value is less than p^2, the content may be destroyed
+     */
+    void reduce(long[] r, long[] t);
+
+    /**
+     * @return limbs of t past the value the reduction uses as scratch
+     */
+    default int scratchLength(){
+        return 0;
+    }
+}
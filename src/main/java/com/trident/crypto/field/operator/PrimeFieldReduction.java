@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+/**
+ * defines how the elements of prime field are reduced modulo field order
+ * @see FiniteFieldElementArithmetics#createFieldElementArithmetics(java.math.BigInteger, PrimeFieldReduction)
+ * @author trident
+ */
+public enum PrimeFieldReduction {
+    /**
+     * BigInteger division by the field order
+     */
+    GENERIC,
+    
+    /**
+     * word-level additions and subtractions for the generalized-Mersenne 
+     * primes of SECP192R1, SECP224R1, SECP256R1, SECP384R1 and SECP521R1
+     */
+    SOLINAS,
+    
+    /**
+     * folding hi*2^n + lo to hi*c + lo for the primes 2^n - c with small c,
+     * such as the primes of SECP192K1, SECP224K1 and SECP256K1
+     */
+    PSEUDO_MERSENNE,
+    
+    /**
+     * Barrett reduction with the constant precomputed per field,
+     * applicable to any field order
+     */
+    BARRETT,
+
+    /**
+     * elements are kept in Montgomery form as 64-bit limbs,
+     * multiplication is done without division, requires odd field order
+     */
+    MONTGOMERY
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import java.math.BigInteger;
+
+/**
+ * reduction modulo pseudo-Mersenne primes p = 2^n - c with small c,
+ * such as the primes of the Koblitz curves SECP192K1, SECP224K1 and SECP256K1
+ *
+ * since 2^n = c mod p the value t = hi*2^n + lo is folded to hi*c + lo,
+ * two folds and a final subtraction bring the product of field elements below p
+ * @author trident
+ */
+final class PseudoMersennePrimeFieldReducer implements PrimeFieldReducer{
+
+    private final long[] p;
+    private final long c; // 2^n - p
+    private final int n; // bit length of p
+    private final int shift; // n mod 64
+    private final long mask; // mask of the bits of the last limb below 2^n
+
+    private PseudoMersennePrimeFieldReducer(BigInteger p, long c){
+        this.n = p.bitLength();
+        this.p = Limbs.fromBigInteger(p, Limbs.length(n));
+        this.c = c;
+        this.shift = n&63;
+        this.mask = shift==0 ? -1L : (1L<<shift)-1;
+    }
+
+    /**
+     * @param p
+     * @return the reducer if p = 2^n - c where c has at most half of the bits of p
+     * and fits into single 63-bit word, otherwise null
+     */
+    static PrimeFieldReducer forPrime(BigInteger p){
+        int n = p.bitLength();
+        BigInteger c = BigInteger.ONE.shiftLeft(n).subtract(p);
+        if(n<128 || c.signum()<=0 || c.bitLength()>63 || c.bitLength()>n/2) return null;
+        return new PseudoMersennePrimeFieldReducer(p, c.longValue());
+    }
+
+    @Override
+    public void reduce(long[] r, long[] t) {
+        int length = p.length;
+        int k = n>>>6; // limb holding the bit n
+
+        // first fold: r + top*2^(64*length) = lo + hi*c
+        long carry = 0;
+        for(int i=0;i<length;i++){
+            long hi = shift==0 ? t[k+i] : (t[k+i]>>>shift)|(t[k+i+1]<<(64-shift));
+            long lo = i<length-1 ? t[i] : t[i]&mask;
+            long plo = hi*c;
+            long phi = Limbs.mulHigh(hi, c);
+            long s = plo + lo;
+            phi += Limbs.carry(plo, lo, s);
+            long u = s + carry;
+            phi += Limbs.carry(s, carry, u);
+            r[i] = u;
+            carry = phi;
+        }
+        long top = carry;
+
+        // second fold, the part above 2^n is less than c+1
+        long hi = shift==0 ? top : (r[length-1]>>>shift)|(top<<(64-shift));
+        r[length-1] &= mask;
+        long plo = hi*c;
+        long phi = Limbs.mulHigh(hi, c);
+        long s = r[0] + plo;
+        carry = Limbs.carry(r[0], plo, s);
+        r[0] = s;
+        for(int i=1;i<length;i++){
+            long x = r[i];
+            long y = i==1 ? phi : 0;
+            s = x + y;
+            long c1 = Limbs.carry(x, y, s);
+            long u = s + carry;
+            carry = c1 | Limbs.carry(s, carry, u);
+            r[i] = u;
+        }
+        SolinasPrimeFieldReducer.correct(r, p, carry);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * fast reduction modulo the generalized-Mersenne (Solinas) primes of the
+ * NIST curves SECP192R1, SECP224R1, SECP256R1, SECP384R1 and SECP521R1
+ *
+ * the value is split into 32-bit words c0, c1, .. and the result is
+ * the signed sum of few vectors built of these words,
+ * e.g. for p = 2^192 - 2^64 - 1:
+ * r = (c5,c4,c3,c2,c1,c0) + (0,0,c7,c6,c7,c6) + (c9,c8,c9,c8,0,0) + (c11,c10,c11,c10,c11,c10)
+ * @see http://www.secg.org/sec2-v2.pdf
+ * @author trident
+ */
+final class SolinasPrimeFieldReducer implements PrimeFieldReducer{
+
+    static final BigInteger P192 = BigInteger.ONE.shiftLeft(192).subtract(BigInteger.ONE.shiftLeft(64)).subtract(BigInteger.ONE);
+    static final BigInteger P224 = BigInteger.ONE.shiftLeft(224).subtract(BigInteger.ONE.shiftLeft(96)).add(BigInteger.ONE);
+    static final BigInteger P256 = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE.shiftLeft(224)).add(BigInteger.ONE.shiftLeft(192)).add(BigInteger.ONE.shiftLeft(96)).subtract(BigInteger.ONE);
+    static final BigInteger P384 = BigInteger.ONE.shiftLeft(384).subtract(BigInteger.ONE.shiftLeft(128)).subtract(BigInteger.ONE.shiftLeft(96)).add(BigInteger.ONE.shiftLeft(32)).subtract(BigInteger.ONE);
+    static final BigInteger P521 = BigInteger.ONE.shiftLeft(521).subtract(BigInteger.ONE);
+
+    private static final long MASK = 0xFFFFFFFFL;
+
+    private final long[] p;
+    private final int words; // count of 32-bit words of the result
+    private final int[][] index; // for each result word the source words
+    private final int[][] coefficient; // for each result word the coefficients of the source words
+
+    /**
+     * @param p - the prime
+     * @param terms - the vectors of source word indices, most significant first, -1 stands for zero word
+     * @param coefficients - the coefficient of each vector in the sum
+     */
+    private SolinasPrimeFieldReducer(BigInteger p, int[][] terms, int[] coefficients){
+        this.p = Limbs.fromBigInteger(p, Limbs.length(p.bitLength()));
+        this.words = terms[0].length;
+        this.index = new int[words][];
+        this.coefficient = new int[words][];
+        for(int j=0;j<words;j++){
+            int[] idx = new int[terms.length];
+            int[] cf = new int[terms.length];
+            int count = 0;
+            for(int k=0;k<terms.length;k++){
+                int source = terms[k][words-1-j];
+                if(source<0) continue;
+                idx[count] = source;
+                cf[count++] = coefficients[k];
+            }
+            this.index[j] = Arrays.copyOf(idx, count);
+            this.coefficient[j] = Arrays.copyOf(cf, count);
+        }
+    }
+
+    /**
+     * @param p
+     * @return the reducer for the provided prime or null if it is not one of the NIST primes
+     */
+    static PrimeFieldReducer forPrime(BigInteger p){
+        if(p.equals(P192)) return new SolinasPrimeFieldReducer(p, new int[][]{
+            { 5, 4, 3, 2, 1, 0},
+            {-1,-1, 7, 6, 7, 6},
+            { 9, 8, 9, 8,-1,-1},
+            {11,10,11,10,11,10}},
+            new int[]{1, 1, 1, 1});
+        if(p.equals(P224)) return new SolinasPrimeFieldReducer(p, new int[][]{
+            { 6, 5, 4, 3, 2, 1, 0},
+            {10, 9, 8, 7,-1,-1,-1},
+            {-1,13,12,11,-1,-1,-1},
+            {13,12,11,10, 9, 8, 7},
+            {-1,-1,-1,-1,13,12,11}},
+            new int[]{1, 1, 1, -1, -1});
+        if(p.equals(P256)) return new SolinasPrimeFieldReducer(p, new int[][]{
+            { 7, 6, 5, 4, 3, 2, 1, 0},
+            {15,14,13,12,11,-1,-1,-1},
+            {-1,15,14,13,12,-1,-1,-1},
+            {15,14,-1,-1,-1,10, 9, 8},
+            { 8,13,15,14,13,11,10, 9},
+            {10, 8,-1,-1,-1,13,12,11},
+            {11, 9,-1,-1,15,14,13,12},
+            {12,-1,10, 9, 8,15,14,13},
+            {13,-1,11,10, 9,-1,15,14}},
+            new int[]{1, 2, 2, 1, 1, -1, -1, -1, -1});
+        if(p.equals(P384)) return new SolinasPrimeFieldReducer(p, new int[][]{
+            {11,10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0},
+            {-1,-1,-1,-1,-1,23,22,21,-1,-1,-1,-1},
+            {23,22,21,20,19,18,17,16,15,14,13,12},
+            {20,19,18,17,16,15,14,13,12,23,22,21},
+            {19,18,17,16,15,14,13,12,20,-1,23,-1},
+            {-1,-1,-1,-1,23,22,21,20,-1,-1,-1,-1},
+            {-1,-1,-1,-1,-1,-1,23,22,21,-1,-1,20},
+            {22,21,20,19,18,17,16,15,14,13,12,23},
+            {-1,-1,-1,-1,-1,-1,-1,23,22,21,20,-1},
+            {-1,-1,-1,-1,-1,-1,-1,23,23,-1,-1,-1}},
+            new int[]{1, 2, 1, 1, 1, 1, 1, -1, -1, -1});
+        if(p.equals(P521)) return new P521Reducer();
+        return null;
+    }
+
+    @Override
+    public void reduce(long[] r, long[] t) {
+        int n = p.length;
+        for(int i=0;i<n;i++) r[i] = 0;
+        long acc = 0; // signed accumulator carrying into the next word
+        for(int j=0;j<words;j++){
+            int[] idx = index[j];
+            int[] cf = coefficient[j];
+            for(int k=0;k<idx.length;k++){
+                int source = idx[k];
+                acc += cf[k]*((t[source>>>1]>>>((source&1)<<5))&MASK);
+            }
+            r[j>>>1] |= (acc&MASK)<<((j&1)<<5);
+            acc >>= 32;
+        }
+        long top = acc; // r + top*2^(32*words)
+        if((words&1)==1){
+            // move the top into the upper half of the last limb
+            r[n-1] += top<<32;
+            top >>= 32;
+        }
+        correct(r, p, top);
+    }
+
+    /**
+     * brings r + top*2^(64n) into [0, p)
+     * @param r
+     * @param p
+     * @param top - small signed value above the limbs of r
+     */
+    static void correct(long[] r, long[] p, long top){
+        while(top<0) top += Limbs.add(r, r, p);
+        while(top>0 || Limbs.compare(r, p)>=0) top -= Limbs.sub(r, r, p);
+    }
+
+    /**
+     * p = 2^521 - 1, t = hi*2^521 + lo = hi + lo mod p
+     */
+    private static final class P521Reducer implements PrimeFieldReducer{
+
+        private static final long[] P = Limbs.fromBigInteger(P521, 9);
+
+        @Override
+        public void reduce(long[] r, long[] t) {
+            // hi = t >> 521 occupies limbs 8..17 shifted by 9 bits
+            long carry = 0;
+            for(int i=0;i<9;i++){
+                long hi = (t[i+8]>>>9)|(t[i+9]<<55);
+                long lo = i==8 ? t[8]&0x1FFL : t[i];
+                long s = lo + hi;
+                long c1 = Limbs.carry(lo, hi, s);
+                long u = s + carry;
+                carry = c1 | Limbs.carry(s, carry, u);
+                r[i] = u;
+            }
+            // the sum is below 2^523, fold the bits above 521 once more
+            long over = r[8]>>>9;
+            r[8] &= 0x1FFL;
+            for(int i=0;i<9 && over!=0;i++){
+                long s = r[i] + over;
+                over = Limbs.carry(r[i], over, s);
+                r[i] = s;
+            }
+            correct(r, P, 0);
+        }
+    }
+}
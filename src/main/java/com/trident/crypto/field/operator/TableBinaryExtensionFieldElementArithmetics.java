@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import com.trident.crypto.field.BinaryExtensionField;
+import com.trident.crypto.field.element.BinaryExtensionFieldElementFactory;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import java.math.BigInteger;
+
+/**
+ * arithmetics of elements in GF(2^m) with m &lt;= 20, the elements fit the single word
+ * and the multiplication, squaring and inversion on the words are the lookups
+ * of the logarithm tables, so every operation of WordBinaryExtensionFieldElementArithmetics
+ * built on them, e.g. the half-trace or the mutable operations, goes through the tables,
+ * the square root of g^i is g^(i/2 mod 2^m-1)
+ * @author trident
+ */
+class TableBinaryExtensionFieldElementArithmetics extends WordBinaryExtensionFieldElementArithmetics{
+
+    private final LogTable table;
+
+    TableBinaryExtensionFieldElementArithmetics(BinaryExtensionField field, BinaryExtensionFieldElementFactory elementFactory, LogTable table){
+        super(field, elementFactory);
+        this.table = table;
+    }
+
+    @Override
+    void mul(long[] r, long[] a, long[] b, long[] t){
+        r[0] = table.mul((int)a[0], (int)b[0]);
+    }
+
+    @Override
+    void sqr(long[] r, long[] a, long[] t){
+        r[0] = table.sqr((int)a[0]);
+    }
+
+    @Override
+    void inv(long[] r, long[] a){
+        r[0] = table.inv((int)a[0]);
+    }
+
+    @Override
+    public FiniteFieldElement sqrt(FiniteFieldElement el1) {
+        return getElementFactory().createFrom(BigInteger.valueOf(table.sqrt(mod(el1).intValue())));
+    }
+
+    @Override
+    public void sqrtInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        dst.words[0] = table.sqrt((int)el1.words[0]);
+    }
+
+    @Override
+    public FiniteFieldElement pow(FiniteFieldElement el1, BigInteger exponent) {
+        if(exponent.signum()<0) return pow(inv(el1), exponent.negate());
+        return getElementFactory().createFrom(BigInteger.valueOf(table.pow(mod(el1).intValue(), exponent)));
+    }
+}
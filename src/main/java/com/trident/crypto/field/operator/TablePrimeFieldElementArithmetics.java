@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import com.trident.crypto.field.PrimeField;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElementFactory;
+import com.trident.crypto.field.exception.MultiplicativeGroupException;
+import java.math.BigInteger;
+
+/**
+ * arithmetics of elements in prime field of order p &lt; 2^20,
+ * the multiplication, inversion and powering are the lookups of the logarithm tables,
+ * the addition and the square root are left to PrimeFieldElementArithmetics
+ * @author trident
+ */
+class TablePrimeFieldElementArithmetics extends PrimeFieldElementArithmetics{
+
+    private final LogTable table;
+
+    TablePrimeFieldElementArithmetics(PrimeField field, FiniteFieldElementFactory elementFactory, LogTable table){
+        super(field, elementFactory, null);
+        this.table = table;
+    }
+
+    private int value(FiniteFieldElement el1){
+        return mod(el1).intValue();
+    }
+
+    private FiniteFieldElement element(int a){
+        return getElementFactory().createFrom(BigInteger.valueOf(a));
+    }
+
+    @Override
+    public FiniteFieldElement mul(FiniteFieldElement el1, FiniteFieldElement el2) {
+        return element(table.mul(value(el1), value(el2)));
+    }
+
+    @Override
+    public FiniteFieldElement sqr(FiniteFieldElement el1) {
+        return element(table.sqr(value(el1)));
+    }
+
+    @Override
+    public FiniteFieldElement inv(FiniteFieldElement el1) {
+        int a = value(el1);
+        if(a==0) throw new MultiplicativeGroupException();
+        return element(table.inv(a));
+    }
+
+    @Override
+    public FiniteFieldElement pow(FiniteFieldElement el1, BigInteger exponent) {
+        if(exponent.signum()<0) return pow(inv(el1), exponent.negate());
+        return element(table.pow(value(el1), exponent));
+    }
+
+    @Override
+    public void mulInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        dst.words[0] = table.mul((int)el1.words[0], (int)el2.words[0]);
+    }
+
+    @Override
+    public void sqrInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        dst.words[0] = table.sqr((int)el1.words[0]);
+    }
+
+    @Override
+    public void invInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        if(el1.words[0]==0) throw new MultiplicativeGroupException();
+        dst.words[0] = table.inv((int)el1.words[0]);
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import com.trident.crypto.field.PrimeField;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElementFactory;
+import java.math.BigInteger;
+
+/**
+ * arithmetics of elements in prime field of odd order p &lt; 2^128,
+ * such as the fields of SECP112R1, SECP112R2, SECP128R1 and SECP128R2
+ *
+ * the values are held as pairs of longs (lo, hi) in local variables,
+ * the multiplication is two-word Montgomery multiplication with R = 2^128
+ * and all the conditional subtractions are branch-free
+ * @author trident
+ */
+class TwoWordPrimeFieldElementArithmetics extends PrimeFieldElementArithmetics{
+
+    private final long p0, p1; // field order
+    private final long pInv; // -p^-1 mod 2^64
+    private final long r20, r21; // R^2 mod p
+
+    public TwoWordPrimeFieldElementArithmetics(PrimeField field, FiniteFieldElementFactory elementFactory){
+        super(field, elementFactory, null);
+        BigInteger order = field.getOrderP();
+        if(!order.testBit(0) || order.bitLength()>128) throw new RuntimeException("field order should be odd and less than 2^128");
+        this.p0 = order.longValue();
+        this.p1 = order.shiftRight(64).longValue();
+        long inv = p0;
+        for(int i=0;i<5;i++) inv *= 2 - p0*inv;
+        this.pInv = -inv;
+        BigInteger r2 = BigInteger.ONE.shiftLeft(256).mod(order);
+        this.r20 = r2.longValue();
+        this.r21 = r2.shiftRight(64).longValue();
+    }
+
+    /**
+     * r = a*b*R^-1 mod p, a and b are less than p
+     * @param r - two limbs of the result
+     */
+    void montMul(long[] r, long a0, long a1, long b0, long b1){
+        // t = a*b0
+        long t0 = a0*b0;
+        long c = Limbs.mulHigh(a0, b0);
+        long lo = a1*b0;
+        long hi = Limbs.mulHigh(a1, b0);
+        long t1 = lo + c;
+        long t2 = hi + Limbs.carry(lo, c, t1);
+        // t = (t + m*p)/2^64
+        long m = t0*pInv;
+        lo = m*p0;
+        c = Limbs.mulHigh(m, p0) + Limbs.carry(lo, t0, lo + t0);
+        lo = m*p1;
+        hi = Limbs.mulHigh(m, p1);
+        long s = lo + t1;
+        hi += Limbs.carry(lo, t1, s);
+        long u = s + c;
+        hi += Limbs.carry(s, c, u);
+        t0 = u;
+        s = t2 + hi;
+        t2 = Limbs.carry(t2, hi, s);
+        t1 = s;
+        // t = t + a*b1
+        lo = a0*b1;
+        hi = Limbs.mulHigh(a0, b1);
+        s = lo + t0;
+        hi += Limbs.carry(lo, t0, s);
+        t0 = s;
+        c = hi;
+        lo = a1*b1;
+        hi = Limbs.mulHigh(a1, b1);
+        s = lo + t1;
+        hi += Limbs.carry(lo, t1, s);
+        u = s + c;
+        hi += Limbs.carry(s, c, u);
+        t1 = u;
+        s = t2 + hi;
+        long t3 = Limbs.carry(t2, hi, s);
+        t2 = s;
+        // t = (t + m*p)/2^64
+        m = t0*pInv;
+        lo = m*p0;
+        c = Limbs.mulHigh(m, p0) + Limbs.carry(lo, t0, lo + t0);
+        lo = m*p1;
+        hi = Limbs.mulHigh(m, p1);
+        s = lo + t1;
+        hi += Limbs.carry(lo, t1, s);
+        u = s + c;
+        hi += Limbs.carry(s, c, u);
+        t0 = u;
+        s = t2 + hi;
+        t3 += Limbs.carry(t2, hi, s);
+        t1 = s;
+        subtractIfGreater(r, t0, t1, t3);
+    }
+
+    /**
+     * r = a^2*R^-1 mod p, a is less than p,
+     * the cross product a0*a1 is computed once and doubled
+     */
+    void montSqr(long[] r, long a0, long a1){
+        long t0 = a0*a0;
+        long t1 = Limbs.mulHigh(a0, a0);
+        long c0 = a0*a1;
+        long c1 = Limbs.mulHigh(a0, a1);
+        long c2 = c1>>>63;
+        c1 = (c1<<1)|(c0>>>63);
+        c0 <<= 1;
+        long s = t1 + c0;
+        long k = Limbs.carry(t1, c0, s);
+        t1 = s;
+        long lo = a1*a1;
+        long t3 = Limbs.mulHigh(a1, a1) + c2;
+        s = lo + c1;
+        t3 += Limbs.carry(lo, c1, s);
+        long t2 = s + k;
+        t3 += Limbs.carry(s, k, t2);
+        redc(r, t0, t1, t2, t3);
+    }
+
+    /**
+     * r = t*R^-1 mod p (Montgomery reduction) of t = (t3,t2,t1,t0) less than p*R
+     */
+    private void redc(long[] r, long t0, long t1, long t2, long t3){
+        long m = t0*pInv;
+        long lo = m*p0;
+        long c = Limbs.mulHigh(m, p0) + Limbs.carry(lo, t0, lo + t0);
+        lo = m*p1;
+        long hi = Limbs.mulHigh(m, p1);
+        long s = lo + t1;
+        hi += Limbs.carry(lo, t1, s);
+        long u = s + c;
+        hi += Limbs.carry(s, c, u);
+        t1 = u;
+        s = t2 + hi;
+        long k = Limbs.carry(t2, hi, s);
+        t2 = s;
+        s = t3 + k;
+        long top = Limbs.carry(t3, k, s);
+        t3 = s;
+        m = t1*pInv;
+        lo = m*p0;
+        c = Limbs.mulHigh(m, p0) + Limbs.carry(lo, t1, lo + t1);
+        lo = m*p1;
+        hi = Limbs.mulHigh(m, p1);
+        s = lo + t2;
+        hi += Limbs.carry(lo, t2, s);
+        u = s + c;
+        hi += Limbs.carry(s, c, u);
+        t2 = u;
+        s = t3 + hi;
+        top += Limbs.carry(t3, hi, s);
+        t3 = s;
+        subtractIfGreater(r, t2, t3, top);
+    }
+
+    /**
+     * r = (top,t1,t0) - p if it is not less than p, otherwise (t1,t0), branch-free
+     */
+    private void subtractIfGreater(long[] r, long t0, long t1, long top){
+        long d0 = t0 - p0;
+        long b = Limbs.borrow(t0, p0, d0);
+        long e = t1 - p1;
+        long b1 = Limbs.borrow(t1, p1, e);
+        long d1 = e - b;
+        b = b1 | Limbs.borrow(e, b, d1);
+        long keep = -(b & ~top & 1);
+        r[0] = (t0 & keep) | (d0 & ~keep);
+        r[1] = (t1 & keep) | (d1 & ~keep);
+    }
+
+    /**
+     * r = a + b mod p, a and b are less than p
+     */
+    void add(long[] r, long a0, long a1, long b0, long b1){
+        long s0 = a0 + b0;
+        long c = Limbs.carry(a0, b0, s0);
+        long s = a1 + b1;
+        long c1 = Limbs.carry(a1, b1, s);
+        long s1 = s + c;
+        c = c1 | Limbs.carry(s, c, s1);
+        subtractIfGreater(r, s0, s1, c);
+    }
+
+    /**
+     * r = a - b mod p, a and b are less than p
+     */
+    void sub(long[] r, long a0, long a1, long b0, long b1){
+        long d0 = a0 - b0;
+        long b = Limbs.borrow(a0, b0, d0);
+        long e = a1 - b1;
+        long bb = Limbs.borrow(a1, b1, e);
+        long d1 = e - b;
+        b = bb | Limbs.borrow(e, b, d1);
+        // add p back if borrowed
+        long mask = -b;
+        long q0 = p0 & mask, q1 = p1 & mask;
+        long s0 = d0 + q0;
+        long c = Limbs.carry(d0, q0, s0);
+        r[0] = s0;
+        r[1] = d1 + q1 + c;
+    }
+
+    /**
+     * @param el1
+     * @return the two limbs of the element reduced modulo p
+     */
+    private long[] toWords(FiniteFieldElement el1){
+        if(el1.signum()<0 || el1.compareTo(getField().getOrderP())>=0) el1 = mod(el1);
+        return new long[]{el1.longValue(), el1.bitLength()>64 ? el1.shiftRight(64).longValue() : 0};
+    }
+
+    private FiniteFieldElement toElement(long[] r){
+        return getElementFactory().createFrom(Limbs.toMagnitude(r));
+    }
+
+    @Override
+    public FiniteFieldElement add(FiniteFieldElement el1, FiniteFieldElement el2) {
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        add(a, a[0], a[1], b[0], b[1]);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement sub(FiniteFieldElement el1, FiniteFieldElement el2) {
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        sub(a, a[0], a[1], b[0], b[1]);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement mul(FiniteFieldElement el1, FiniteFieldElement el2) {
+        if(el1.equals(BigInteger.ZERO)||el2.equals(BigInteger.ZERO)) return getElementFactory().createFrom(BigInteger.ZERO);
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        montMul(a, a[0], a[1], b[0], b[1]); // a*b*R^-1
+        montMul(a, a[0], a[1], r20, r21); // a*b
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement mulAdd(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        long[] c = toWords(el3);
+        montMul(a, a[0], a[1], b[0], b[1]);
+        montMul(a, a[0], a[1], r20, r21);
+        add(a, a[0], a[1], c[0], c[1]);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement mulSub(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        long[] c = toWords(el3);
+        montMul(a, a[0], a[1], b[0], b[1]);
+        montMul(a, a[0], a[1], r20, r21);
+        sub(a, a[0], a[1], c[0], c[1]);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement addMul(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        long[] c = toWords(el3);
+        add(a, a[0], a[1], b[0], b[1]);
+        montMul(a, a[0], a[1], c[0], c[1]);
+        montMul(a, a[0], a[1], r20, r21);
+        return toElement(a);
+    }
+
+    /**
+     * the products stay in Montgomery form until their sum is converted back
+     */
+    @Override
+    public FiniteFieldElement sumOfProducts(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3, FiniteFieldElement el4) {
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        long[] c = toWords(el3);
+        long[] d = toWords(el4);
+        montMul(a, a[0], a[1], b[0], b[1]);
+        montMul(c, c[0], c[1], d[0], d[1]);
+        add(a, a[0], a[1], c[0], c[1]);
+        montMul(a, a[0], a[1], r20, r21);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement sqr(FiniteFieldElement el1) {
+        long[] a = toWords(el1);
+        montSqr(a, a[0], a[1]); // a^2*R^-1
+        montMul(a, a[0], a[1], r20, r21); // a^2
+        return toElement(a);
+    }
+
+    @Override
+    FiniteFieldElement pow(FiniteFieldElement el1, AdditionChain chain) {
+        if(chain == null) return super.pow(el1, chain);
+        long[] a = toWords(el1);
+        montMul(a, a[0], a[1], r20, r21); // into Montgomery form
+        chain.evaluate(a, a, multiplier(), null);
+        montMul(a, a[0], a[1], 1, 0); // out of Montgomery form
+        return toElement(a);
+    }
+
+    /**
+     * the scratch is not used, the words are multiplied in local variables
+     * @return two-word Montgomery multiplication
+     */
+    @Override
+    AdditionChain.Multiplier multiplier() {
+        return new AdditionChain.Multiplier() {
+            @Override
+            public void mul(long[] r, long[] x, long[] y, long[] t) {
+                montMul(r, x[0], x[1], y[0], y[1]);
+            }
+
+            @Override
+            public void sqr(long[] r, long[] x, long[] t) {
+                montSqr(r, x[0], x[1]);
+            }
+        };
+    }
+
+    /**
+     * the mutable elements are pairs of words in Montgomery form
+     */
+    @Override
+    public MutableFiniteFieldElement newMutableElement() {
+        return new MutableFiniteFieldElement(2, 0);
+    }
+
+    @Override
+    public void load(MutableFiniteFieldElement dst, FiniteFieldElement el1) {
+        long[] a = toWords(el1);
+        montMul(dst.words, a[0], a[1], r20, r21);
+    }
+
+    @Override
+    public FiniteFieldElement store(MutableFiniteFieldElement src) {
+        montMul(src.temp, src.words[0], src.words[1], 1, 0);
+        return toElement(src.temp);
+    }
+
+    @Override
+    public void addInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        add(dst.words, el1.words[0], el1.words[1], el2.words[0], el2.words[1]);
+    }
+
+    @Override
+    public void subInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        sub(dst.words, el1.words[0], el1.words[1], el2.words[0], el2.words[1]);
+    }
+
+    @Override
+    public void complementInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        sub(dst.words, 0, 0, el1.words[0], el1.words[1]);
+    }
+
+    @Override
+    public void mulSmallInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, int k) {
+        if(k<0){
+            mulSmallInto(dst, el1, -k);
+            complementInto(dst, dst);
+            return;
+        }
+        long x0 = el1.words[0], x1 = el1.words[1];
+        long[] r = dst.words;
+        r[0] = 0;
+        r[1] = 0;
+        for(int i=31-Integer.numberOfLeadingZeros(k);i>=0;i--){
+            add(r, r[0], r[1], r[0], r[1]);
+            if(((k>>>i)&1)!=0) add(r, r[0], r[1], x0, x1);
+        }
+    }
+
+    @Override
+    public void mulInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        montMul(dst.words, el1.words[0], el1.words[1], el2.words[0], el2.words[1]);
+    }
+
+    @Override
+    public void sqrInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        montSqr(dst.words, el1.words[0], el1.words[1]);
+    }
+
+    @Override
+    public FiniteFieldElement complement(FiniteFieldElement el1) {
+        long[] a = toWords(el1);
+        sub(a, 0, 0, a[0], a[1]);
+        return toElement(a);
+    }
+}
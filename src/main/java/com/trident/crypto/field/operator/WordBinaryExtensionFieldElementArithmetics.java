@@ -0,0 +1,776 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.trident.crypto.field.operator;
+
+import com.trident.crypto.field.BinaryExtensionField;
+import com.trident.crypto.field.element.BinaryExtensionFieldElementFactory;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.exception.MultiplicativeGroupException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * arithmetics of elements in binary extension field GF(2^m)
+ * working on the fixed-length arrays of 64-bit words
+ *
+ * the bit i of the word j is the coefficient of x^(64j+i), the elements are
+ * converted from and to BinaryExtensionFieldElement only at the API boundary,
+ * the multiplication is the left-to-right comb method of Lopez and Dahab
+ * with 4-bit window, the reduction folds the words above x^m with a shift
+ * and xor per term of the irreducible trinomial or pentanomial,
+ * the squaring, the repeated squaring and the half-trace are table-driven
+ * @author trident
+ */
+class WordBinaryExtensionFieldElementArithmetics extends BinaryExtensionFieldElementArithmetics{
+
+    private static final int WINDOW = 4;
+    private static final int KARATSUBA_CROSSOVER = 5; // longest operands multiplied by the comb method in Karatsuba
+    private static final int MULTI_SQUARING_THRESHOLD = 12; // least count of squarings done with the table
+
+    private static final short[] SQUARE = new short[256]; // byte with zero bits interleaved
+    static{
+        for(int i=0;i<256;i++) SQUARE[i] = (short)spread(i);
+    }
+
+    private final int degree; // m
+    private final int length; // words of the reduced element
+    private final int polyLength; // words of the irreducible polynomial
+    private final long[] poly; // irreducible polynomial
+    private final int[] terms; // exponents of the irreducible polynomial below m
+    private final int crossover; // longest operands multiplied by the comb method without Karatsuba split
+    private final int scratchLength; // words of the product followed by the multiplication scratch
+    private final ConcurrentHashMap<Integer, long[]> multiSquarings; // tables of x -> x^(2^k) by k
+    private final BinaryFieldInversion inversion;
+    private final int[] inversionChain; // addition chain 1, ..., m-1 of the Itoh-Tsujii inversion
+    private final int divisionStep; // bits of the almost inverse divided by x at once
+    private final long[] traceMask; // bit i is the trace of x^i
+    private volatile long[] halfTraces; // half-traces of x^i for odd i, built on the first use
+
+    public WordBinaryExtensionFieldElementArithmetics(BinaryExtensionField field, BinaryExtensionFieldElementFactory elementFactory){
+        this(field, elementFactory, BinaryFieldInversion.EUCLID);
+    }
+
+    public WordBinaryExtensionFieldElementArithmetics(BinaryExtensionField field, BinaryExtensionFieldElementFactory elementFactory, BinaryFieldInversion inversion){
+        this(field, elementFactory, BinaryFieldMultiplication.COMB, inversion);
+    }
+
+    public WordBinaryExtensionFieldElementArithmetics(BinaryExtensionField field, BinaryExtensionFieldElementFactory elementFactory, BinaryFieldMultiplication multiplication, BinaryFieldInversion inversion){
+        super(field, elementFactory);
+        this.inversion = inversion;
+        this.degree = field.getOrderQ();
+        this.length = Limbs.length(degree);
+        this.crossover = multiplication==BinaryFieldMultiplication.KARATSUBA ? KARATSUBA_CROSSOVER : length;
+        this.polyLength = Limbs.length(degree+1);
+        this.poly = Limbs.fromBigInteger(field.getIrreduciblePoly(), polyLength);
+        int[] exponents = field.getExponents();
+        this.terms = Arrays.copyOfRange(exponents, 1, exponents.length);
+        this.scratchLength = 2*length + karatsubaScratch(length);
+        this.multiSquarings = new ConcurrentHashMap<>();
+        this.inversionChain = chain(degree-1);
+        this.divisionStep = Math.min(64, terms.length>1 ? terms[terms.length-2] : 64);
+        this.traceMask = traceMask(field.getIrreduciblePoly());
+    }
+
+    /**
+     * the traces s_i = Tr(x^i) are the power sums of the roots of f,
+     * by Newton's identities in characteristic 2
+     * s_i = f_(m-1)*s_(i-1) + ... + f_(m-i+1)*s_1 + i*f_(m-i)
+     * @param f - irreducible polynomial
+     * @return mask of the bits i such that Tr(x^i) = 1
+     */
+    private long[] traceMask(BigInteger f){
+        int[] s = new int[degree];
+        s[0] = degree&1;
+        for(int i=1;i<degree;i++){
+            int t = (i&1)==1 && f.testBit(degree-i) ? 1 : 0;
+            for(int k: terms){
+                int j = degree-k; // f_(m-j) = 1
+                if(j<i) t ^= s[i-j];
+            }
+            s[i] = t;
+        }
+        long[] mask = new long[length];
+        for(int i=0;i<degree;i++) mask[i>>>6] |= (long)s[i]<<(i&63);
+        return mask;
+    }
+
+    /**
+     * binary addition chain of n, every element is either the double
+     * or the successor of the previous one
+     * @param n - positive
+     * @return 1, ..., n
+     */
+    private static int[] chain(int n){
+        if(n<1) return new int[0];
+        int[] r = new int[2*32];
+        int count = 0;
+        for(int i=31-Integer.numberOfLeadingZeros(n);i>=0;i--){
+            int k = n>>>i;
+            if(count>0 && (k&1)!=0) r[count++] = k-1;
+            r[count++] = k;
+        }
+        return Arrays.copyOf(r, count);
+    }
+
+    /**
+     * c = c ^ (a &lt;&lt; s), the bits shifted out of c are dropped
+     */
+    private static void xorShifted(long[] c, long[] a, int aLength, int s){
+        int w = s>>>6, b = s&63;
+        if(b==0){
+            for(int j=0;j<aLength && w+j<c.length;j++) c[w+j] ^= a[j];
+            return;
+        }
+        for(int j=0;j<aLength && w+j<c.length;j++){
+            c[w+j] ^= a[j]<<b;
+            if(w+j+1<c.length) c[w+j+1] ^= a[j]>>>(64-b);
+        }
+    }
+
+    /**
+     * reduce the polynomial held in the first words of c modulo the irreducible polynomial,
+     * the result is left in the first length words of c
+     *
+     * x^m = x^k1 + ... + 1 mod f, so every word above x^m is folded down
+     * with one shift and xor per term of f, the quotient is never computed
+     * @param c
+     * @param words - count of the words of c to reduce
+     */
+    void reduce(long[] c, int words){
+        int top = degree>>>6;
+        for(int i=words-1;i>top;i--){
+            long t;
+            while((t = c[i])!=0){
+                c[i] = 0;
+                for(int k: terms) fold(c, t, 64*i - degree + k);
+            }
+        }
+        long t;
+        while((t = c[top]>>>(degree&63))!=0){
+            c[top] ^= t<<(degree&63);
+            for(int k: terms) fold(c, t, k);
+        }
+    }
+
+    /**
+     * c = c ^ (t &lt;&lt; s), the shifted t never passes the end of c
+     * but its zero high part may
+     */
+    private static void fold(long[] c, long t, int s){
+        int w = s>>>6, b = s&63;
+        c[w] ^= t<<b;
+        if(b!=0 && w+1<c.length) c[w+1] ^= t>>>(64-b);
+    }
+
+    /**
+     * unreduced product of a and b, a and b have length words
+     * @param c - at least scratchLength words, the product is written to the first 2*length words
+     * and the rest is used as scratch
+     */
+    void product(long[] c, long[] a, long[] b){
+        karatsuba(c, 0, a, 0, b, 0, length, c, 2*length);
+    }
+
+    /**
+     * c[co, co+2n) = a[ao, ao+n)*b[bo, bo+n) by Karatsuba-Ofman,
+     * the operands are split into the low (n+1)/2 words and the rest
+     * down to the crossover length multiplied by the comb method
+     * @param t - scratch of karatsubaScratch(n) words from the offset to
+     */
+    void karatsuba(long[] c, int co, long[] a, int ao, long[] b, int bo, int n, long[] t, int to){
+        if(n<=crossover){
+            comb(c, co, a, ao, b, bo, n, t, to);
+            return;
+        }
+        int h = (n+1)>>>1, l = n-h;
+        int sa = to, sb = to+h, m = to+2*h;
+        // c = a0*b0 + a1*b1*x^(128h)
+        karatsuba(c, co, a, ao, b, bo, h, t, to);
+        karatsuba(c, co+2*h, a, ao+h, b, bo+h, l, t, to);
+        // m = (a0 + a1)*(b0 + b1) + a0*b0 + a1*b1
+        for(int i=0;i<h;i++){
+            t[sa+i] = i<l ? a[ao+i]^a[ao+h+i] : a[ao+i];
+            t[sb+i] = i<l ? b[bo+i]^b[bo+h+i] : b[bo+i];
+        }
+        karatsuba(t, m, t, sa, t, sb, h, t, m+2*h);
+        for(int i=0;i<2*h;i++) t[m+i] ^= c[co+i];
+        for(int i=0;i<2*l;i++) t[m+i] ^= c[co+2*h+i];
+        // c = c + m*x^(64h)
+        for(int i=0;i<2*h;i++) c[co+h+i] ^= t[m+i];
+    }
+
+    /**
+     * @return words of scratch used by the Karatsuba multiplication of n words
+     */
+    private int karatsubaScratch(int n){
+        if(n<=crossover) return (1<<WINDOW)*(n+1);
+        int h = (n+1)>>>1;
+        return 4*h + karatsubaScratch(h);
+    }
+
+    /**
+     * c[co, co+2n) = a[ao, ao+n)*b[bo, bo+n) by the left-to-right comb method
+     * with the window table of u(x)*b(x) for all polynomials u of degree less than 4
+     * @param t - scratch of 16*(n+1) words from the offset to
+     */
+    void comb(long[] c, int co, long[] a, int ao, long[] b, int bo, int n, long[] t, int to){
+        int w = n+1;
+        Arrays.fill(t, to, to+w, 0L);
+        System.arraycopy(b, bo, t, to+w, n);
+        t[to+w+n] = 0;
+        for(int u=2;u<(1<<WINDOW);u++){
+            int tu = to + u*w;
+            if((u&1)==0){
+                int h = to + (u>>>1)*w;
+                t[tu] = t[h]<<1;
+                for(int i=1;i<w;i++) t[tu+i] = (t[h+i]<<1)|(t[h+i-1]>>>63);
+            } else {
+                int h = tu - w;
+                for(int i=0;i<n;i++) t[tu+i] = t[h+i]^b[bo+i];
+                t[tu+n] = t[h+n];
+            }
+        }
+        Arrays.fill(c, co, co+2*n, 0L);
+        for(int k=64-WINDOW;k>=0;k-=WINDOW){
+            for(int j=0;j<n;j++){
+                int tu = to + (int)((a[ao+j]>>>k)&((1<<WINDOW)-1))*w;
+                for(int i=0;i<w;i++) c[co+j+i] ^= t[tu+i];
+            }
+            if(k!=0){
+                for(int i=co+2*n-1;i>co;i--) c[i] = (c[i]<<WINDOW)|(c[i-1]>>>(64-WINDOW));
+                c[co] <<= WINDOW;
+            }
+        }
+    }
+
+    /**
+     * r = a*b mod f, r may alias a or b
+     * @param t - scratch of scratchLength words
+     */
+    void mul(long[] r, long[] a, long[] b, long[] t){
+        product(t, a, b);
+        reduce(t, 2*length);
+        System.arraycopy(t, 0, r, 0, length);
+    }
+
+    /**
+     * r = a^2 mod f, r may alias a,
+     * the bits of a are interleaved with zeros byte by byte using the table
+     * @param t - scratch of at least 2*length words
+     */
+    void sqr(long[] r, long[] a, long[] t){
+        for(int i=0;i<length;i++){
+            long x = a[i];
+            t[2*i] = expand(x);
+            t[2*i+1] = expand(x>>>32);
+        }
+        reduce(t, 2*length);
+        System.arraycopy(t, 0, r, 0, length);
+    }
+
+    /**
+     * @param x
+     * @return low 32 bits of x with zero bits interleaved
+     */
+    private static long expand(long x){
+        return (SQUARE[(int)x&0xFF]&0xFFFFL)
+                | (SQUARE[(int)(x>>>8)&0xFF]&0xFFFFL)<<16
+                | (SQUARE[(int)(x>>>16)&0xFF]&0xFFFFL)<<32
+                | (SQUARE[(int)(x>>>24)&0xFF]&0xFFFFL)<<48;
+    }
+
+    /**
+     * r = a^(2^k) mod f, r may alias a
+     *
+     * the map x -> x^(2^k) is linear, so for large k the result is
+     * the xor of the images of the 4-bit chunks of a taken from the table
+     * built on the first use for this k
+     * @param t - scratch of at least 2*length words
+     */
+    void sqrn(long[] r, long[] a, int k, long[] t){
+        if(k<MULTI_SQUARING_THRESHOLD){
+            if(k==0) System.arraycopy(a, 0, r, 0, length);
+            for(int i=0;i<k;i++) sqr(r, i==0 ? a : r, t);
+            return;
+        }
+        long[] table = multiSquaring(k);
+        Arrays.fill(t, 0, length, 0L);
+        for(int j=0, chunk=0;j<degree;j+=4, chunk++){
+            int v = (int)(a[j>>>6]>>>(j&63))&15;
+            int off = (chunk*16 + v)*length;
+            for(int i=0;i<length;i++) t[i] ^= table[off+i];
+        }
+        System.arraycopy(t, 0, r, 0, length);
+    }
+
+    /**
+     * @param k
+     * @return the images (v*x^(4j))^(2^k) of all 4-bit values v at all positions j,
+     * each of length words
+     */
+    private long[] multiSquaring(int k){
+        long[] table = multiSquarings.get(k);
+        if(table!=null) return table;
+        int chunks = (degree+3)>>>2;
+        table = new long[chunks*16*length];
+        long[] t = new long[scratchLength];
+        // y = x^(2^k), the image of x^i is y^i
+        long[] y = new long[length];
+        y[0] = 2;
+        for(int i=0;i<k;i++) sqr(y, y, t);
+        long[] image = new long[length];
+        image[0] = 1;
+        for(int i=0;i<degree;i++){
+            int chunk = i>>>2, bit = 1<<(i&3);
+            for(int v=bit;v<2*bit;v++){
+                int off = (chunk*16 + v)*length, low = (chunk*16 + v - bit)*length;
+                for(int w=0;w<length;w++) table[off+w] = table[low+w]^image[w];
+            }
+            mul(image, image, y, t);
+        }
+        long[] previous = multiSquarings.putIfAbsent(k, table);
+        return previous==null ? table : previous;
+    }
+
+    /**
+     * r = a^-1 mod f with the inversion selected for this field
+     * @param a - non zero
+     */
+    void inv(long[] r, long[] a){
+        switch(inversion){
+            case ALMOST_INVERSE:
+                almostInverse(r, a);
+                break;
+            case ITOH_TSUJII:
+                itohTsujii(r, a);
+                break;
+            default:
+                euclid(r, a);
+        }
+    }
+
+    /**
+     * r = a^-1 mod f using the extended Euclidean algorithm for polynomials
+     */
+    private void euclid(long[] r, long[] a){
+        long[] u = Arrays.copyOf(a, polyLength);
+        long[] v = poly.clone();
+        long[] g1 = new long[polyLength];
+        long[] g2 = new long[polyLength];
+        g1[0] = 1;
+        int du = degree(u), dv = degree;
+        while(du>0){
+            int j = du - dv;
+            if(j<0){
+                long[] t = u; u = v; v = t;
+                t = g1; g1 = g2; g2 = t;
+                int d = du; du = dv; dv = d;
+                j = -j;
+            }
+            xorShifted(u, v, polyLength, j);
+            xorShifted(g1, g2, polyLength, j);
+            du = degree(u);
+        }
+        System.arraycopy(g1, 0, r, 0, length);
+    }
+
+    /**
+     * r = a^-1 mod f using the almost inverse algorithm,
+     * the loop keeps b*a = x^k*u and c*a = x^k*v mod f
+     * and removes all the trailing zeros of u at once
+     */
+    private void almostInverse(long[] r, long[] a){
+        long[] u = Arrays.copyOf(a, polyLength);
+        long[] v = poly.clone();
+        long[] b = new long[polyLength+1];
+        long[] c = new long[polyLength+1];
+        b[0] = 1;
+        int k = 0;
+        int du = degree(u), dv = degree;
+        while(true){
+            int z = trailingZeros(u);
+            if(z>0){
+                shiftRight(u, z);
+                shiftLeft(c, z);
+                k += z;
+                du -= z;
+            }
+            if(du==0) break;
+            if(du<dv){
+                long[] t = u; u = v; v = t;
+                t = b; b = c; c = t;
+                int d = du; du = dv; dv = d;
+            }
+            for(int i=0;i<polyLength;i++){
+                u[i] ^= v[i];
+                b[i] ^= c[i];
+            }
+            du = degree(u);
+        }
+        // b = b/x^k, f = 1 mod x^divisionStep so adding l*f clears the low bits l of b
+        while(k>0){
+            int s = Math.min(k, divisionStep);
+            long l = b[0]&(-1L>>>(64-s));
+            fold(b, l, degree);
+            for(int term: terms) fold(b, l, term);
+            shiftRight(b, s);
+            k -= s;
+        }
+        reduce(b, b.length);
+        System.arraycopy(b, 0, r, 0, length);
+    }
+
+    /**
+     * r = a^-1 = (a^(2^(m-1) - 1))^2 mod f, the powers b_k = a^(2^k - 1)
+     * follow the chain of m-1 by b_2k = b_k^(2^k)*b_k and b_(k+1) = b_k^2*a
+     */
+    private void itohTsujii(long[] r, long[] a){
+        long[] t = new long[scratchLength];
+        long[] b = Arrays.copyOf(a, length);
+        long[] s = new long[length];
+        for(int i=1;i<inversionChain.length;i++){
+            int k = inversionChain[i-1];
+            if(inversionChain[i]==2*k){
+                sqrn(s, b, k, t);
+                mul(b, s, b, t);
+            } else {
+                sqr(s, b, t);
+                mul(b, s, a, t);
+            }
+        }
+        sqr(r, b, t);
+    }
+
+    /**
+     * @return Tr(a), 0 or 1
+     */
+    int trace(long[] a){
+        long t = 0;
+        for(int i=0;i<length;i++) t ^= a[i]&traceMask[i];
+        return Long.bitCount(t)&1;
+    }
+
+    /**
+     * r = H(a) for odd m, r may alias a
+     *
+     * H(x^2i) = H(x^i) + x^i + Tr(x^i), so the even powers of a are moved
+     * down to the odd ones from the top, the odd powers are taken from the table
+     */
+    void halfTrace(long[] r, long[] a){
+        long[] table = halfTraces();
+        long[] c = Arrays.copyOf(a, length);
+        long[] h = new long[length];
+        int t = 0;
+        for(int i=(degree-1)>>>1;i>=1;i--){
+            if(((c[(2*i)>>>6]>>>(2*i))&1)!=0){
+                c[(2*i)>>>6] ^= 1L<<(2*i);
+                c[i>>>6] ^= 1L<<i;
+                h[i>>>6] ^= 1L<<i;
+                t ^= (int)(traceMask[i>>>6]>>>i)&1;
+            }
+        }
+        // H(1) is the sum of (m+1)/2 ones
+        if((c[0]&1)!=0) t ^= ((degree+1)>>>1)&1;
+        for(int i=1;i<degree;i+=2){
+            if(((c[i>>>6]>>>i)&1)!=0){
+                int off = (i>>>1)*length;
+                for(int w=0;w<length;w++) h[w] ^= table[off+w];
+            }
+        }
+        h[0] ^= t;
+        System.arraycopy(h, 0, r, 0, length);
+    }
+
+    /**
+     * @return H(x^i) for odd i less than m, each of length words
+     */
+    private long[] halfTraces(){
+        long[] table = halfTraces;
+        if(table!=null) return table;
+        table = new long[((degree+1)>>>1)*length];
+        long[] t = new long[2*length];
+        long[] x = new long[length];
+        long[] y = new long[length];
+        for(int i=1;i<degree;i+=2){
+            Arrays.fill(x, 0L);
+            x[i>>>6] = 1L<<i;
+            int off = (i>>>1)*length;
+            for(int k=0;k<=(degree-1)>>>1;k++){
+                for(int w=0;w<length;w++) table[off+w] ^= x[w];
+                sqr(y, x, t);
+                sqr(x, y, t);
+            }
+        }
+        halfTraces = table;
+        return table;
+    }
+
+    /**
+     * @return count of the trailing zero bits of the non zero a
+     */
+    private static int trailingZeros(long[] a){
+        int i = 0;
+        while(a[i]==0) i++;
+        return 64*i + Long.numberOfTrailingZeros(a[i]);
+    }
+
+    /**
+     * a = a &lt;&lt; s, the bits shifted out of a are dropped
+     */
+    private static void shiftLeft(long[] a, int s){
+        int w = s>>>6, b = s&63;
+        for(int i=a.length-1;i>=0;i--){
+            long hi = i-w>=0 ? a[i-w] : 0;
+            long lo = i-w-1>=0 ? a[i-w-1] : 0;
+            a[i] = b==0 ? hi : (hi<<b)|(lo>>>(64-b));
+        }
+    }
+
+    /**
+     * a = a &gt;&gt; s
+     */
+    private static void shiftRight(long[] a, int s){
+        int w = s>>>6, b = s&63;
+        for(int i=0;i<a.length;i++){
+            long lo = i+w<a.length ? a[i+w] : 0;
+            long hi = i+w+1<a.length ? a[i+w+1] : 0;
+            a[i] = b==0 ? lo : (lo>>>b)|(hi<<(64-b));
+        }
+    }
+
+    /**
+     * @return degree of the polynomial a, -1 for zero
+     */
+    private static int degree(long[] a){
+        for(int i=a.length-1;i>=0;i--){
+            if(a[i]!=0) return 64*i + 63 - Long.numberOfLeadingZeros(a[i]);
+        }
+        return -1;
+    }
+
+    /**
+     * @param el1
+     * @param r - receives el1 mod f in length words
+     */
+    private void toWords(FiniteFieldElement el1, long[] r){
+        if(el1.bitLength()<=degree){
+            Limbs.fromBigInteger(el1, r);
+            return;
+        }
+        long[] c = Limbs.fromBigInteger(el1, Limbs.length(el1.bitLength()));
+        reduce(c, c.length);
+        System.arraycopy(c, 0, r, 0, length);
+    }
+
+    private long[] toWords(FiniteFieldElement el1){
+        long[] r = new long[length];
+        toWords(el1, r);
+        return r;
+    }
+
+    private FiniteFieldElement toElement(long[] a){
+        return getElementFactory().createFrom(Limbs.toMagnitude(a));
+    }
+
+    @Override
+    public FiniteFieldElement add(FiniteFieldElement el1, FiniteFieldElement el2) {
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        for(int i=0;i<length;i++) a[i] ^= b[i];
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement mul(FiniteFieldElement el1, FiniteFieldElement el2) {
+        long[] a = toWords(el1);
+        mul(a, a, toWords(el2), new long[scratchLength]);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement mulAdd(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        long[] t = new long[scratchLength];
+        product(t, toWords(el1), toWords(el2));
+        long[] c = toWords(el3);
+        for(int i=0;i<length;i++) t[i] ^= c[i];
+        reduce(t, 2*length);
+        return toElement(Arrays.copyOf(t, length));
+    }
+
+    @Override
+    public FiniteFieldElement addMul(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3) {
+        long[] a = toWords(el1);
+        long[] b = toWords(el2);
+        for(int i=0;i<length;i++) a[i] ^= b[i];
+        mul(a, a, toWords(el3), new long[scratchLength]);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement sumOfProducts(FiniteFieldElement el1, FiniteFieldElement el2, FiniteFieldElement el3, FiniteFieldElement el4) {
+        long[] t = new long[scratchLength];
+        long[] s = new long[scratchLength];
+        product(t, toWords(el1), toWords(el2));
+        product(s, toWords(el3), toWords(el4));
+        for(int i=0;i<2*length;i++) t[i] ^= s[i];
+        reduce(t, 2*length);
+        return toElement(Arrays.copyOf(t, length));
+    }
+
+    @Override
+    public FiniteFieldElement sqr(FiniteFieldElement el1) {
+        long[] a = toWords(el1);
+        sqr(a, a, new long[2*length]);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement inv(FiniteFieldElement el1) throws MultiplicativeGroupException {
+        long[] a = toWords(el1);
+        if(Limbs.isZero(a)) throw new MultiplicativeGroupException();
+        inv(a, a);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement pow(FiniteFieldElement el1, BigInteger exponent) {
+        if(exponent.signum()<0) return pow(inv(el1), exponent.negate());
+        if(exponent.signum()==0) return getElementFactory().createFrom(BigInteger.ONE);
+        long[] a = toWords(el1);
+        AdditionChain.slidingWindow(exponent).evaluate(a, a, multiplier(), new long[scratchLength]);
+        return toElement(a);
+    }
+
+    /**
+     * the scratch passed to the multiplication has scratchLength words
+     * @return comb multiplication on words
+     */
+    AdditionChain.Multiplier multiplier(){
+        return new AdditionChain.Multiplier() {
+            @Override
+            public void mul(long[] r, long[] x, long[] y, long[] t) {
+                WordBinaryExtensionFieldElementArithmetics.this.mul(r, x, y, t);
+            }
+
+            @Override
+            public void sqr(long[] r, long[] x, long[] t) {
+                WordBinaryExtensionFieldElementArithmetics.this.sqr(r, x, t);
+            }
+        };
+    }
+
+    @Override
+    public FiniteFieldElement sqrt(FiniteFieldElement el1) {
+        long[] a = toWords(el1);
+        sqrn(a, a, degree-1, new long[2*length]);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement mod(FiniteFieldElement el1) {
+        return toElement(toWords(el1));
+    }
+
+    @Override
+    public FiniteFieldElement trace(FiniteFieldElement el1) {
+        return getElementFactory().createFrom(BigInteger.valueOf(trace(toWords(el1))));
+    }
+
+    @Override
+    public FiniteFieldElement halfTrace(FiniteFieldElement el1) {
+        if((degree&1)==0) throw new RuntimeException("half-trace is defined only for binary extension field of odd degree");
+        long[] a = toWords(el1);
+        halfTrace(a, a);
+        return toElement(a);
+    }
+
+    @Override
+    public FiniteFieldElement solveQuadratic(FiniteFieldElement el1) {
+        if((degree&1)==0) return super.solveQuadratic(el1);
+        long[] a = toWords(el1);
+        if(trace(a)!=0) throw new RuntimeException("z^2 + z = c has no solution in the field");
+        halfTrace(a, a);
+        return toElement(a);
+    }
+
+    /**
+     * the mutable elements hold the reduced words, the wide scratch
+     * receives the products and the comb table
+     */
+    @Override
+    public MutableFiniteFieldElement newMutableElement() {
+        return new MutableFiniteFieldElement(length, scratchLength);
+    }
+
+    @Override
+    public void load(MutableFiniteFieldElement dst, FiniteFieldElement el1) {
+        toWords(el1, dst.words);
+    }
+
+    @Override
+    public void addInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        for(int i=0;i<length;i++) dst.words[i] = el1.words[i]^el2.words[i];
+    }
+
+    @Override
+    public void subInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        addInto(dst, el1, el2);
+    }
+
+    @Override
+    public void complementInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        set(dst, el1);
+    }
+
+    @Override
+    public void mulSmallInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, int k) {
+        if((k&1)==0) Arrays.fill(dst.words, 0L);
+        else set(dst, el1);
+    }
+
+    @Override
+    public void mulInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1, MutableFiniteFieldElement el2) {
+        mul(dst.words, el1.words, el2.words, dst.wide);
+    }
+
+    @Override
+    public void sqrInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        sqr(dst.words, el1.words, dst.wide);
+    }
+
+    @Override
+    public void invInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        if(isZero(el1)) throw new MultiplicativeGroupException();
+        inv(dst.words, el1.words);
+    }
+
+    @Override
+    public void sqrtInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        sqrn(dst.words, el1.words, degree-1, dst.wide);
+    }
+
+    @Override
+    public void halfTraceInto(MutableFiniteFieldElement dst, MutableFiniteFieldElement el1) {
+        if((degree&1)==0) throw new RuntimeException("half-trace is defined only for binary extension field of odd degree");
+        halfTrace(dst.words, el1.words);
+    }
+
+    @Override
+    public int trace(MutableFiniteFieldElement el1) {
+        return trace(el1.words);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package bench;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.element.BinaryExtensionFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.BinaryFieldMultiplication;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * throughput of the comb and Karatsuba multiplication 
+ * in the fields of all the SECT curves
+ *
+ * run with: java -cp target/test-classes:target/classes:&lt;test classpath&gt; bench.BinaryFieldMultiplicationBenchmark
+ * @author trident
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryFieldMultiplicationBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({"SECT113R1", "SECT163K1", "SECT163R1", "SECT163R2", "SECT233K1", "SECT233R1", 
+        "SECT239K1", "SECT283K1", "SECT283R1", "SECT409K1", "SECT409R1", "SECT571K1"})
+    private SECP curve;
+
+    @Param({"COMB", "KARATSUBA"})
+    private BinaryFieldMultiplication multiplication;
+
+    private FiniteFieldElementArithmetics arithmetics;
+    private FiniteFieldElement[] x;
+    private FiniteFieldElement[] y;
+    private int i;
+
+    @Setup
+    public void setup(){
+        BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(curve.getP());
+        arithmetics = FiniteFieldElementArithmetics.createFieldElementArithmetics(poly, multiplication);
+        Random random = new Random(42);
+        x = new FiniteFieldElement[SIZE];
+        y = new FiniteFieldElement[SIZE];
+        for(int j=0;j<SIZE;j++){
+            x[j] = arithmetics.getElementFactory().createFrom(new BigInteger(poly.getDegree(), random));
+            y[j] = arithmetics.getElementFactory().createFrom(new BigInteger(poly.getDegree(), random));
+        }
+    }
+
+    @Benchmark
+    public FiniteFieldElement mul(){
+        i = (i+1)&(SIZE-1);
+        return arithmetics.mul(x[i], y[i]);
+    }
+
+    public static void main(String[] args) throws RunnerException{
+        new Runner(new OptionsBuilder().include(BinaryFieldMultiplicationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
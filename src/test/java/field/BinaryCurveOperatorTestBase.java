@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.EllipticCurve;
+import com.trident.crypto.elliptic.EllipticCurveOperator;
+import com.trident.crypto.elliptic.EllipticCurvePoint;
+import com.trident.crypto.elliptic.arithmetics.ECOverBEFArithmetics;
+import com.trident.crypto.elliptic.arithmetics.EllipticCurveArithmetics;
+import com.trident.crypto.elliptic.arithmetics.PointAtInfinityArithmeticsDecorator;
+import com.trident.crypto.elliptic.nist.SECP;
+import java.math.BigInteger;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * checks of the specialized operators of the curves over binary fields
+ * against the generic ECOverBEFArithmetics
+ * @author trident
+ */
+public abstract class BinaryCurveOperatorTestBase {
+    private int times;
+    private Random random;
+
+    /**
+     * @return curves the operator is tested on
+     */
+    protected abstract SECP[] curves();
+
+    /**
+     * @param curve
+     * @return the operator under the test, throws RuntimeException if it is not applicable to the curve
+     */
+    protected abstract EllipticCurveArithmetics create(EllipticCurve curve);
+
+    /**
+     * @return whether create should accept the curve
+     */
+    protected abstract boolean isApplicable(SECP spec, EllipticCurve curve);
+    
+    @Before
+    public void init(){
+        random = new Random();
+        times = 1<<4;
+    }
+    
+    @Test
+    public void testMultiplication(){
+        for(SECP spec: curves()){
+            EllipticCurve curve = EllipticCurve.createFrom(spec);
+            EllipticCurveOperator generic = new PointAtInfinityArithmeticsDecorator(new ECOverBEFArithmetics(curve));
+            EllipticCurveOperator op = new PointAtInfinityArithmeticsDecorator(create(curve));
+            BigInteger n = curve.getN();
+            EllipticCurvePoint p = curve.getG();
+            
+            for(int i=0;i<times;i++){
+                BigInteger k = new BigInteger(n.bitLength()+8, random).add(BigInteger.ONE);
+                EllipticCurvePoint kp = op.mul(k, p);
+                Assert.assertEquals(generic.mul(k, p), kp);
+                Assert.assertTrue(op.belongsTo(kp));
+                p = kp;
+            }
+            
+            for(int k=2;k<40;k++){
+                Assert.assertEquals(generic.mul(BigInteger.valueOf(k), p), op.mul(BigInteger.valueOf(k), p));
+            }
+        }
+    }
+    
+    @Test
+    public void testOrder(){
+        for(SECP spec: curves()){
+            EllipticCurve curve = EllipticCurve.createFrom(spec);
+            EllipticCurveOperator op = new PointAtInfinityArithmeticsDecorator(create(curve));
+            BigInteger n = curve.getN();
+            EllipticCurvePoint G = curve.getG();
+            
+            Assert.assertEquals(EllipticCurvePoint.POINT_ON_INFINITY, op.mul(n, G));
+            Assert.assertEquals(EllipticCurvePoint.POINT_ON_INFINITY, op.mul(n.shiftLeft(3), G));
+            Assert.assertEquals(op.negate(G), op.mul(n.subtract(BigInteger.ONE), G));
+            Assert.assertEquals(G, op.mul(n.add(BigInteger.ONE), G));
+            // (n+1)/2*G is the half of G
+            BigInteger half = n.add(BigInteger.ONE).shiftRight(1);
+            Assert.assertEquals(G, op.doub(op.mul(half, G)));
+        }
+    }
+    
+    @Test
+    public void testOutOfSubgroup(){
+        // P = kG + T with T = (0, sqrt(b)) of order 2
+        for(SECP spec: curves()){
+            EllipticCurve curve = EllipticCurve.createFrom(spec);
+            EllipticCurveOperator generic = new PointAtInfinityArithmeticsDecorator(new ECOverBEFArithmetics(curve));
+            EllipticCurveOperator op = new PointAtInfinityArithmeticsDecorator(create(curve));
+            BigInteger n = curve.getN();
+            EllipticCurvePoint T = EllipticCurvePoint.create(curve.getFieldArithmetics().getElementFactory().createFrom(BigInteger.ZERO), curve.getFieldArithmetics().sqrt(curve.getB()));
+            Assert.assertTrue(generic.belongsTo(T));
+            for(int i=0;i<times;i++){
+                BigInteger k = new BigInteger(n.bitLength(), random).add(BigInteger.ONE);
+                EllipticCurvePoint p = generic.add(generic.mul(k, curve.getG()), T);
+                Assert.assertEquals(T, op.mul(n, p));
+                Assert.assertEquals(generic.mul(n.subtract(BigInteger.ONE), p), op.mul(n.subtract(BigInteger.ONE), p));
+                Assert.assertEquals(generic.mul(k, p), op.mul(k, p));
+            }
+        }
+    }
+    
+    @Test
+    public void testDetection(){
+        for(SECP spec: SECP.values()){
+            if(spec.getType()) continue;
+            EllipticCurve curve = EllipticCurve.createFrom(spec);
+            boolean applicable = isApplicable(spec, curve);
+            try{
+                create(curve);
+                Assert.assertTrue(applicable);
+            }catch(RuntimeException e){
+                Assert.assertFalse(applicable);
+            }
+        }
+    }
+}
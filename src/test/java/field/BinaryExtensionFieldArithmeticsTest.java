@@ -83,6 +83,33 @@ public class BinaryExtensionFieldArithmeticsTest {
         } 
     }
     
+    @Test
+    public void testSquare(){
+        for(int i=0;i<times;i++){
+            FiniteFieldElement x = arithmetics.getElementFactory().createFrom(new BigInteger(irreduciblePoly.getDegree()+10,random));
+            Assert.assertEquals(arithmetics.mul(x, x), arithmetics.sqr(x));
+        } 
+    }
+    
+    @Test
+    public void testSquareRoot(){
+        for(int i=0;i<times/10;i++){
+            FiniteFieldElement x = arithmetics.getElementFactory().createFrom(new BigInteger(irreduciblePoly.getDegree(),random));
+            Assert.assertEquals(arithmetics.mod(x), arithmetics.sqr(arithmetics.sqrt(x)));
+        }
+    }
+    
+    @Test
+    public void testPow(){
+        for(int i=0;i<times/10;i++){
+            FiniteFieldElement x = arithmetics.getElementFactory().createFrom(new BigInteger(irreduciblePoly.getDegree(),random));
+            int e = random.nextInt(64);
+            FiniteFieldElement res = arithmetics.getElementFactory().createFrom(BigInteger.ONE);
+            for(int j=0;j<e;j++) res = arithmetics.mul(res, x);
+            Assert.assertEquals(res, arithmetics.pow(x, BigInteger.valueOf(e)));
+        }
+    }
+    
     @Test
     public void testInverse(){
         for(int i=0;i<times;i++){
@@ -95,6 +122,19 @@ public class BinaryExtensionFieldArithmeticsTest {
         }   
     }
     
+    @Test
+    public void testInverseAll(){
+        FiniteFieldElement[] in = new FiniteFieldElement[times/100];
+        for(int i=0;i<in.length;i++) in[i] = arithmetics.getElementFactory().createFrom(new BigInteger(irreduciblePoly.getDegree(),random));
+        in[in.length/2] = arithmetics.getElementFactory().createFrom(BigInteger.ZERO);
+        FiniteFieldElement[] out = new FiniteFieldElement[in.length];
+        arithmetics.invAll(in, out);
+        for(int i=0;i<in.length;i++){
+            if(arithmetics.mod(in[i]).equals(BigInteger.ZERO)) Assert.assertEquals(BigInteger.ZERO, out[i]);
+            else Assert.assertEquals(arithmetics.inv(in[i]), out[i]);
+        }
+    }
+    
     @Test
     public void testComplement(){
         for(int i=0;i<times;i++){
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.element.BinaryExtensionFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.BitSlicedBinaryExtensionFieldArithmetics;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author trident
+ */
+public class BitSlicedBinaryExtensionFieldArithmeticsTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 150;
+        random = new Random();
+    }
+
+    @Test
+    public void testAllFields(){
+        for(SECP secp: SECP.values()){
+            if(secp.getType()) continue;
+            BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(secp.getP());
+            BitSlicedBinaryExtensionFieldArithmetics bs = new BitSlicedBinaryExtensionFieldArithmetics(poly);
+            FiniteFieldElementArithmetics f = bs.getFieldArithmetics();
+            FiniteFieldElement[] a = random(f, poly.getDegree(), times);
+            FiniteFieldElement[] b = random(f, poly.getDegree(), times);
+            a[7] = f.getElementFactory().createFrom(BigInteger.ZERO);
+            FiniteFieldElement[] out = new FiniteFieldElement[times];
+
+            bs.addAll(a, b, out);
+            for(int i=0;i<times;i++) Assert.assertEquals(f.add(a[i], b[i]), out[i]);
+            bs.mulAll(a, b, out);
+            for(int i=0;i<times;i++) Assert.assertEquals(f.mul(a[i], b[i]), out[i]);
+            bs.sqrAll(a, out);
+            for(int i=0;i<times;i++) Assert.assertEquals(f.sqr(a[i]), out[i]);
+            bs.invAll(a, out);
+            for(int i=0;i<times;i++){
+                if(a[i].equals(BigInteger.ZERO)) Assert.assertEquals(BigInteger.ZERO, out[i]);
+                else Assert.assertEquals(f.inv(a[i]), out[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testLanes(){
+        BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(SECP.SECT233K1.getP());
+        BitSlicedBinaryExtensionFieldArithmetics bs = new BitSlicedBinaryExtensionFieldArithmetics(poly);
+        FiniteFieldElementArithmetics f = bs.getFieldArithmetics();
+        int lanes = BitSlicedBinaryExtensionFieldArithmetics.LANES;
+        FiniteFieldElement[] a = random(f, poly.getDegree(), lanes);
+        FiniteFieldElement[] b = random(f, poly.getDegree(), lanes);
+        long mask = random.nextLong();
+        for(int j=0;j<lanes;j+=3) b[j] = a[j];
+        a[5] = f.getElementFactory().createFrom(BigInteger.ZERO);
+
+        long[] x = bs.newSlice(), y = bs.newSlice(), r = bs.newSlice();
+        bs.pack(x, a, 0);
+        bs.pack(y, b, 0);
+        bs.select(r, mask, x, y);
+        long equal = bs.equalMask(x, y);
+        long zero = bs.zeroMask(x);
+        FiniteFieldElement[] out = new FiniteFieldElement[lanes];
+        bs.unpack(r, out, 0);
+        for(int j=0;j<lanes;j++){
+            Assert.assertEquals(((mask>>>j)&1)!=0 ? a[j] : b[j], out[j]);
+            Assert.assertEquals(a[j].equals(b[j]), ((equal>>>j)&1)!=0);
+            Assert.assertEquals(a[j].equals(BigInteger.ZERO), ((zero>>>j)&1)!=0);
+        }
+        bs.broadcast(r, a[1]);
+        bs.unpack(r, out, 0);
+        for(int j=0;j<lanes;j++) Assert.assertEquals(a[1], out[j]);
+    }
+
+    private FiniteFieldElement[] random(FiniteFieldElementArithmetics f, int bits, int n){
+        FiniteFieldElement[] r = new FiniteFieldElement[n];
+        for(int i=0;i<n;i++) r[i] = f.mod(f.getElementFactory().createFrom(new BigInteger(bits, random)));
+        return r;
+    }
+}
@@ -19,12 +19,16 @@ import com.trident.crypto.elliptic.EllipticCurve;
 import com.trident.crypto.elliptic.EllipticCurveOperator;
 import com.trident.crypto.elliptic.arithmetics.EllipticCurveArithmetics;
 import com.trident.crypto.elliptic.EllipticCurvePoint;
+import com.trident.crypto.elliptic.arithmetics.ECOverBEFArithmetics;
 import com.trident.crypto.elliptic.arithmetics.ECOverPFArithmetics;
 import com.trident.crypto.elliptic.arithmetics.PointAtInfinityArithmeticsDecorator;
 import com.trident.crypto.elliptic.nist.SECP;
 import com.trident.crypto.field.element.FiniteFieldElement;
 import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import java.lang.ref.WeakReference;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import junit.framework.Assert;
 import org.junit.Before;
@@ -113,6 +117,131 @@ public class EllipticCurveTest {
     }
     
     
+    @Test
+    public void testMulAll(){
+        for(int j = 0;j<SECP.values().length;j++){
+            // the prime curves multiply one by one
+            if(SECP.values()[j].getType()) continue;
+            EllipticCurveOperator ar = EllipticCurveArithmetics.createFrom(SECP.values()[j]);
+            EllipticCurvePoint G = ar.getEllipticCurve().getG();
+            BigInteger n = ar.getEllipticCurve().getN();
+            int count = 70;
+            BigInteger[] k = new BigInteger[count];
+            EllipticCurvePoint[] p = new EllipticCurvePoint[count];
+            for(int i=0;i<count;i++){
+                k[i] = new BigInteger(n.bitLength()+4, random).add(BigInteger.ONE);
+                p[i] = ar.mul(BigInteger.valueOf(i+1), G);
+            }
+            k[1] = n;
+            k[2] = n.subtract(BigInteger.ONE);
+            k[3] = BigInteger.ONE;
+            p[4] = EllipticCurvePoint.POINT_ON_INFINITY;
+            EllipticCurvePoint[] out = new EllipticCurvePoint[count];
+            ar.mulAll(k, p, out);
+            for(int i=0;i<count;i++){
+                Assert.assertEquals(ar.mul(k[i], p[i]), out[i]);
+            }
+            Assert.assertEquals(EllipticCurvePoint.POINT_ON_INFINITY, out[1]);
+            Assert.assertEquals(EllipticCurvePoint.POINT_ON_INFINITY, out[4]);
+        }
+    }
+    
+    @Test
+    public void testMulLinearity(){
+        for(int j = 0;j<SECP.values().length;j++){
+            EllipticCurveOperator ar = EllipticCurveArithmetics.createFrom(SECP.values()[j]);
+            EllipticCurvePoint G = ar.getEllipticCurve().getG();
+            BigInteger n = ar.getEllipticCurve().getN();
+            for(int i=0;i<4;i++){
+                BigInteger a = new BigInteger(n.bitLength(), random).add(BigInteger.ONE);
+                BigInteger b = new BigInteger(n.bitLength(), random).add(BigInteger.ONE);
+                Assert.assertEquals(ar.add(ar.mul(a, G), ar.mul(b, G)), ar.mul(a.add(b), G));
+            }
+        }
+    }
+    
+    @Test
+    public void testMulSmallCurve(){
+        // the multiples pass the point on infinity and the points of order 2
+        FiniteFieldElementArithmetics fa = FiniteFieldElementArithmetics.createFieldElementArithmetics(BigInteger.valueOf(17));
+        FiniteFieldElement a = fa.getElementFactory().createFrom(BigInteger.valueOf(2));
+        FiniteFieldElement b = fa.getElementFactory().createFrom(BigInteger.valueOf(3));
+        EllipticCurvePoint ecp = EllipticCurvePoint.create(fa.getElementFactory().createFrom(BigInteger.valueOf(3)), fa.getElementFactory().createFrom(BigInteger.valueOf(6)));
+        EllipticCurve ec = new EllipticCurve(fa, a, b, ecp, BigInteger.ONE, BigInteger.ONE);
+        EllipticCurveOperator op = new PointAtInfinityArithmeticsDecorator(new ECOverPFArithmetics(ec));
+        EllipticCurvePoint p = ecp;
+        for(int j = 2;j<100;j++){
+            p = op.add(p, ecp);
+            Assert.assertEquals(p, op.mul(BigInteger.valueOf(j), ecp));
+        }
+    }
+    
+    @Test
+    public void testWindows(){
+        for(SECP spec: new SECP[]{SECP.SECP256R1, SECP.SECT233R1}){
+            EllipticCurve curve = EllipticCurve.createFrom(spec);
+            EllipticCurveArithmetics ar = spec.getType() ? new ECOverPFArithmetics(curve) : new ECOverBEFArithmetics(curve);
+            BigInteger k = new BigInteger(curve.getN().bitLength(), random).add(BigInteger.ONE);
+            EllipticCurvePoint expected = ar.mul(k, curve.getG());
+            for(int w=2;w<=8;w++){
+                ar.setWindow(w);
+                Assert.assertEquals(expected, ar.mul(k, curve.getG()));
+            }
+        }
+    }
+    
+    @Test
+    public void testWindowsSmallCurve(){
+        // the point of order 19, the wide windows have the multiples on infinity
+        FiniteFieldElementArithmetics fa = FiniteFieldElementArithmetics.createFieldElementArithmetics(BigInteger.valueOf(17));
+        FiniteFieldElement a = fa.getElementFactory().createFrom(BigInteger.valueOf(2));
+        FiniteFieldElement b = fa.getElementFactory().createFrom(BigInteger.valueOf(3));
+        EllipticCurvePoint ecp = EllipticCurvePoint.create(fa.getElementFactory().createFrom(BigInteger.valueOf(3)), fa.getElementFactory().createFrom(BigInteger.valueOf(6)));
+        EllipticCurve ec = new EllipticCurve(fa, a, b, ecp, BigInteger.ONE, BigInteger.ONE);
+        ECOverPFArithmetics ar = new ECOverPFArithmetics(ec);
+        EllipticCurveOperator op = new PointAtInfinityArithmeticsDecorator(ar);
+        List<EllipticCurvePoint> multiples = new ArrayList<>();
+        multiples.add(EllipticCurvePoint.POINT_ON_INFINITY);
+        for(EllipticCurvePoint p = ecp;!p.equals(EllipticCurvePoint.POINT_ON_INFINITY);p = op.add(p, ecp)) multiples.add(p);
+        BigInteger order = BigInteger.valueOf(multiples.size());
+        for(int w=2;w<=8;w++){
+            ar.setWindow(w);
+            for(int i=0;i<50;i++){
+                BigInteger k = new BigInteger(80, random).add(BigInteger.ONE);
+                Assert.assertEquals(multiples.get(k.mod(order).intValue()), op.mul(k, ecp));
+            }
+        }
+    }
+    
+    @Test
+    public void testGeneratorComb(){
+        // the multiples of G go through the comb, the multiples of -G do not
+        for(int j = 0;j<SECP.values().length;j++){
+            EllipticCurveOperator ar = EllipticCurveArithmetics.createFrom(SECP.values()[j]);
+            EllipticCurvePoint G = ar.getEllipticCurve().getG();
+            EllipticCurvePoint notG = ar.negate(G);
+            BigInteger n = ar.getEllipticCurve().getN();
+            BigInteger[] k = new BigInteger[]{
+                BigInteger.valueOf(2), BigInteger.valueOf(3), n.subtract(BigInteger.ONE),
+                new BigInteger(n.bitLength(), random).add(BigInteger.ONE),
+                new BigInteger(n.bitLength()+20, random).add(BigInteger.ONE)};
+            for(BigInteger t: k){
+                Assert.assertEquals(ar.negate(ar.mul(t, notG)), ar.mul(t, G));
+            }
+            Assert.assertEquals(EllipticCurvePoint.POINT_ON_INFINITY, ar.mul(n, G));
+        }
+    }
+    
+    @Test
+    public void testMulDoesNotRetainArithmetics() throws InterruptedException{
+        Assert.assertTrue(MutableFiniteFieldElementTest.isCollected(mulOnce(EllipticCurveArithmetics.createFrom(SECP.SECP256R1))));
+    }
+
+    private WeakReference<FiniteFieldElementArithmetics> mulOnce(EllipticCurveOperator ar){
+        ar.mul(BigInteger.valueOf(12345), ar.getEllipticCurve().getG());
+        return new WeakReference<FiniteFieldElementArithmetics>(ar.getEllipticCurve().getFieldArithmetics());
+    }
+
     @Test
     public void testCustomEC(){
         FiniteFieldElementArithmetics fa = FiniteFieldElementArithmetics.createFieldElementArithmetics(BigInteger.valueOf(17));
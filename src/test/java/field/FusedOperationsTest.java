@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.element.BinaryExtensionFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.PrimeFieldReduction;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author trident
+ */
+public class FusedOperationsTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 1000;
+        random = new Random();
+    }
+
+    @Test
+    public void testPrimeFields(){
+        for(SECP secp: SECP.values()){
+            if(!secp.getType()) continue;
+            BigInteger p = new BigInteger(secp.getP(), 16);
+            for(PrimeFieldReduction reduction: new PrimeFieldReduction[]{PrimeFieldReduction.GENERIC, PrimeFieldReduction.BARRETT, PrimeFieldReduction.MONTGOMERY}){
+                check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, reduction));
+            }
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p));
+        }
+    }
+
+    @Test
+    public void testBinaryField(){
+        BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(SECP.SECT163K1.getP());
+        FiniteFieldElementArithmetics f = FiniteFieldElementArithmetics.createFieldElementArithmetics(poly);
+        for(int i=0;i<times;i++){
+            FiniteFieldElement a = f.getElementFactory().createFrom(new BigInteger(poly.getDegree(), random));
+            FiniteFieldElement b = f.getElementFactory().createFrom(new BigInteger(poly.getDegree(), random));
+            FiniteFieldElement c = f.getElementFactory().createFrom(new BigInteger(poly.getDegree(), random));
+            FiniteFieldElement d = f.getElementFactory().createFrom(new BigInteger(poly.getDegree(), random));
+            Assert.assertEquals(f.add(f.mul(a, b), c), f.mulAdd(a, b, c));
+            Assert.assertEquals(f.sub(f.mul(a, b), c), f.mulSub(a, b, c));
+            Assert.assertEquals(f.mul(f.add(a, b), c), f.addMul(a, b, c));
+            Assert.assertEquals(f.add(f.mul(a, b), f.mul(c, d)), f.sumOfProducts(a, b, c, d));
+            Assert.assertEquals(f.add(f.add(a, a), a), f.mulSmall(a, 3));
+            Assert.assertEquals(BigInteger.ZERO, f.mulSmall(a, 8));
+        }
+    }
+
+    private void check(BigInteger p, FiniteFieldElementArithmetics f){
+        for(int i=0;i<times;i++){
+            BigInteger a = new BigInteger(p.bitLength(), random).mod(p);
+            BigInteger b = new BigInteger(p.bitLength(), random).mod(p);
+            BigInteger c = new BigInteger(p.bitLength(), random).mod(p);
+            BigInteger d = i==0 ? p.subtract(BigInteger.ONE) : new BigInteger(p.bitLength(), random).mod(p);
+            if(i==0) a = b = c = d;
+            FiniteFieldElement ea = f.getElementFactory().createFrom(a);
+            FiniteFieldElement eb = f.getElementFactory().createFrom(b);
+            FiniteFieldElement ec = f.getElementFactory().createFrom(c);
+            FiniteFieldElement ed = f.getElementFactory().createFrom(d);
+            Assert.assertEquals(a.multiply(b).add(c).mod(p), f.mulAdd(ea, eb, ec));
+            Assert.assertEquals(a.multiply(b).subtract(c).mod(p), f.mulSub(ea, eb, ec));
+            Assert.assertEquals(a.add(b).multiply(c).mod(p), f.addMul(ea, eb, ec));
+            Assert.assertEquals(a.multiply(b).add(c.multiply(d)).mod(p), f.sumOfProducts(ea, eb, ec, ed));
+            for(int k: new int[]{-3, 0, 2, 3, 8}){
+                Assert.assertEquals(a.multiply(BigInteger.valueOf(k)).mod(p), f.mulSmall(ea, k));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.EllipticCurve;
+import com.trident.crypto.elliptic.arithmetics.EllipticCurveArithmetics;
+import com.trident.crypto.elliptic.arithmetics.KoblitzCurveArithmetics;
+import com.trident.crypto.elliptic.nist.SECP;
+
+/**
+ *
+ * @author trident
+ */
+public class KoblitzCurveTest extends BinaryCurveOperatorTestBase {
+    private static final SECP[] KOBLITZ = {SECP.SECT163K1, SECP.SECT233K1, SECP.SECT239K1, SECP.SECT283K1, SECP.SECT409K1, SECP.SECT571K1};
+
+    @Override
+    protected SECP[] curves(){
+        return KOBLITZ;
+    }
+
+    @Override
+    protected EllipticCurveArithmetics create(EllipticCurve curve){
+        return new KoblitzCurveArithmetics(curve);
+    }
+
+    @Override
+    protected boolean isApplicable(SECP spec, EllipticCurve curve){
+        return spec.name().endsWith("K1");
+    }
+}
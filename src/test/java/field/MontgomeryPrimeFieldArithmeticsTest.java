@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.PrimeFieldReduction;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author trident
+ */
+public class MontgomeryPrimeFieldArithmeticsTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 1000;
+        random = new Random();
+    }
+
+    @Test
+    public void testAgainstBigInteger(){
+        for(SECP secp: SECP.values()){
+            if(!secp.getType()) continue;
+            BigInteger p = new BigInteger(secp.getP(), 16);
+            PrimeFieldArithmeticsCheck.check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.MONTGOMERY), times, random);
+        }
+        BigInteger p = BigInteger.valueOf(1009);
+        PrimeFieldArithmeticsCheck.check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.MONTGOMERY), times, random);
+    }
+}
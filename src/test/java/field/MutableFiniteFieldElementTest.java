@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.element.BinaryExtensionFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.MutableFiniteFieldElement;
+import com.trident.crypto.field.operator.PrimeFieldReduction;
+import java.lang.ref.WeakReference;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author trident
+ */
+public class MutableFiniteFieldElementTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 200;
+        random = new Random();
+    }
+
+    @Test
+    public void testPrimeFields(){
+        for(SECP secp: SECP.values()){
+            if(!secp.getType()) continue;
+            BigInteger p = new BigInteger(secp.getP(), 16);
+            for(PrimeFieldReduction reduction: new PrimeFieldReduction[]{PrimeFieldReduction.GENERIC, PrimeFieldReduction.BARRETT, PrimeFieldReduction.MONTGOMERY}){
+                check(FiniteFieldElementArithmetics.createFieldElementArithmetics(p, reduction), p.bitLength());
+            }
+            check(FiniteFieldElementArithmetics.createFieldElementArithmetics(p), p.bitLength());
+        }
+        check(FiniteFieldElementArithmetics.createFieldElementArithmetics(BigInteger.valueOf(1009)), 10);
+    }
+
+    @Test
+    public void testBinaryField(){
+        BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(SECP.SECT163K1.getP());
+        FiniteFieldElementArithmetics f = FiniteFieldElementArithmetics.createFieldElementArithmetics(poly);
+        check(f, poly.getDegree());
+        MutableFiniteFieldElement ma = f.newMutableElement();
+        MutableFiniteFieldElement dst = f.newMutableElement();
+        for(int i=0;i<times;i++){
+            FiniteFieldElement a = f.mod(f.getElementFactory().createFrom(new BigInteger(poly.getDegree(), random)));
+            f.load(ma, a);
+            f.sqrtInto(dst, ma);
+            Assert.assertEquals(f.sqrt(a), f.store(dst));
+            f.halfTraceInto(dst, ma);
+            Assert.assertEquals(f.halfTrace(a), f.store(dst));
+            Assert.assertEquals(f.trace(a).intValue(), f.trace(ma));
+        }
+    }
+
+    @Test
+    public void testInversionDoesNotRetainArithmetics() throws InterruptedException{
+        BigInteger p = new BigInteger(SECP.SECP256R1.getP(), 16);
+        for(PrimeFieldReduction reduction: new PrimeFieldReduction[]{PrimeFieldReduction.SOLINAS, PrimeFieldReduction.BARRETT, PrimeFieldReduction.MONTGOMERY}){
+            Assert.assertTrue(reduction.name(), isCollected(invertOnce(FiniteFieldElementArithmetics.createFieldElementArithmetics(p, reduction))));
+        }
+        Assert.assertTrue(isCollected(invertOnce(FiniteFieldElementArithmetics.createFieldElementArithmetics(p))));
+        Assert.assertTrue(isCollected(invertOnce(FiniteFieldElementArithmetics.createFieldElementArithmetics(BigInteger.valueOf(1000003)))));
+    }
+
+    private WeakReference<FiniteFieldElementArithmetics> invertOnce(FiniteFieldElementArithmetics f){
+        MutableFiniteFieldElement dst = f.newMutableElement();
+        f.load(dst, f.getElementFactory().createFrom(BigInteger.valueOf(7)));
+        f.invInto(dst, dst);
+        return new WeakReference<FiniteFieldElementArithmetics>(f);
+    }
+
+    static boolean isCollected(WeakReference<?> ref) throws InterruptedException{
+        for(int i=0;i<50 && ref.get()!=null;i++){
+            System.gc();
+            Thread.sleep(10);
+        }
+        return ref.get() == null;
+    }
+
+    private void check(FiniteFieldElementArithmetics f, int bits){
+        MutableFiniteFieldElement ma = f.newMutableElement();
+        MutableFiniteFieldElement mb = f.newMutableElement();
+        MutableFiniteFieldElement dst = f.newMutableElement();
+        for(int i=0;i<times;i++){
+            FiniteFieldElement a = f.mod(f.getElementFactory().createFrom(new BigInteger(bits, random)));
+            FiniteFieldElement b = f.mod(f.getElementFactory().createFrom(new BigInteger(bits, random)));
+            f.load(ma, a);
+            f.load(mb, b);
+            Assert.assertEquals(a, f.store(ma));
+            Assert.assertEquals(a.equals(BigInteger.ZERO), f.isZero(ma));
+            Assert.assertEquals(a.equals(b), f.isEqual(ma, mb));
+            f.addInto(dst, ma, mb);
+            Assert.assertEquals(f.add(a, b), f.store(dst));
+            f.subInto(dst, ma, mb);
+            Assert.assertEquals(f.sub(a, b), f.store(dst));
+            f.mulInto(dst, ma, mb);
+            Assert.assertEquals(f.mul(a, b), f.store(dst));
+            f.sqrInto(dst, ma);
+            Assert.assertEquals(f.sqr(a), f.store(dst));
+            f.complementInto(dst, ma);
+            Assert.assertEquals(f.complement(a), f.store(dst));
+            f.mulSmallInto(dst, ma, 3);
+            Assert.assertEquals(f.mulSmall(a, 3), f.store(dst));
+            if(!a.equals(BigInteger.ZERO)){
+                f.invInto(dst, ma);
+                Assert.assertEquals(f.inv(a), f.store(dst));
+            }
+            // the destination may be one of the arguments
+            f.set(dst, ma);
+            f.mulInto(dst, dst, dst);
+            Assert.assertEquals(f.sqr(a), f.store(dst));
+            f.subInto(dst, mb, dst);
+            Assert.assertEquals(f.sub(b, f.sqr(a)), f.store(dst));
+            Assert.assertEquals(a, f.store(ma));
+            Assert.assertEquals(b, f.store(mb));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.EllipticCurve;
+import com.trident.crypto.elliptic.arithmetics.EllipticCurveArithmetics;
+import com.trident.crypto.elliptic.arithmetics.PointHalvingArithmetics;
+import com.trident.crypto.elliptic.nist.SECP;
+import java.math.BigInteger;
+
+/**
+ *
+ * @author trident
+ */
+public class PointHalvingTest extends BinaryCurveOperatorTestBase {
+    private static final SECP[] HALVABLE = {SECP.SECT113R1, SECP.SECT163R1, SECP.SECT163R2, SECP.SECT233R1, SECP.SECT283R1, SECP.SECT409R1};
+
+    @Override
+    protected SECP[] curves(){
+        return HALVABLE;
+    }
+
+    @Override
+    protected EllipticCurveArithmetics create(EllipticCurve curve){
+        return new PointHalvingArithmetics(curve);
+    }
+
+    @Override
+    protected boolean isApplicable(SECP spec, EllipticCurve curve){
+        return curve.getH().equals(BigInteger.valueOf(2));
+    }
+}
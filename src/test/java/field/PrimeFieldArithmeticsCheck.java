@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Assert;
+
+/**
+ * comparison of the prime field engines against BigInteger, shared by their tests
+ * @author trident
+ */
+final class PrimeFieldArithmeticsCheck {
+
+    private PrimeFieldArithmeticsCheck(){
+    }
+
+    /**
+     * checks the edge values 0, 1, p-1 and times random pairs of elements
+     */
+    static void check(BigInteger p, FiniteFieldElementArithmetics arithmetics, int times, Random random){
+        BigInteger pm = p.subtract(BigInteger.ONE);
+        BigInteger[] edges = {BigInteger.ZERO, BigInteger.ONE, pm};
+        for(BigInteger x: edges){
+            for(BigInteger y: edges) check(p, arithmetics, x, y);
+        }
+        for(int i=0;i<times;i++){
+            BigInteger x = new BigInteger(p.bitLength(), random).mod(p);
+            BigInteger y = new BigInteger(p.bitLength(), random).mod(p);
+            check(p, arithmetics, x, y);
+        }
+    }
+
+    static void check(BigInteger p, FiniteFieldElementArithmetics arithmetics, BigInteger x, BigInteger y){
+        FiniteFieldElement ex = arithmetics.getElementFactory().createFrom(x);
+        FiniteFieldElement ey = arithmetics.getElementFactory().createFrom(y);
+        Assert.assertEquals(x.add(y).mod(p), arithmetics.add(ex, ey));
+        Assert.assertEquals(x.subtract(y).mod(p), arithmetics.sub(ex, ey));
+        Assert.assertEquals(x.multiply(y).mod(p), arithmetics.mul(ex, ey));
+        Assert.assertEquals(x.multiply(x).mod(p), arithmetics.sqr(ex));
+        Assert.assertEquals(x.negate().mod(p), arithmetics.complement(ex));
+        Assert.assertEquals(x.multiply(y).mod(p), arithmetics.mod(arithmetics.getElementFactory().createFrom(x.multiply(y))));
+        if(x.signum()!=0) Assert.assertEquals(x.modInverse(p), arithmetics.inv(ex));
+    }
+}
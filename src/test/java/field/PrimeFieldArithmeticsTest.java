@@ -1,8 +1,10 @@
 package field;
 
 
+import com.trident.crypto.field.element.FiniteFieldElement;
 import com.trident.crypto.field.exception.MultiplicativeGroupException;
 import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.MutableFiniteFieldElement;
 import java.math.BigInteger;
 import java.util.Random;
 import junit.framework.Assert;
@@ -94,6 +96,46 @@ public class PrimeFieldArithmeticsTest {
         } 
     }
     
+    @Test
+    public void testInverseCompositeOrder(){
+        BigInteger[] orders = new BigInteger[]{BigInteger.valueOf(15), BigInteger.ONE.shiftLeft(40).add(BigInteger.ONE), BigInteger.ONE.shiftLeft(200).add(BigInteger.ONE)};
+        for(BigInteger order: orders){
+            FiniteFieldElementArithmetics f = FiniteFieldElementArithmetics.createFieldElementArithmetics(order);
+            MutableFiniteFieldElement m = f.newMutableElement();
+            for(int i=0;i<times;i++){
+                BigInteger x = new BigInteger(order.bitLength(), random).mod(order);
+                if(!x.gcd(order).equals(BigInteger.ONE)) continue;
+                FiniteFieldElement el = f.getElementFactory().createFrom(x);
+                Assert.assertEquals(x.modInverse(order), f.inv(el));
+                f.load(m, el);
+                f.invInto(m, m);
+                Assert.assertEquals(x.modInverse(order), f.store(m));
+            }
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testInverseNotInvertible(){
+        FiniteFieldElementArithmetics f = FiniteFieldElementArithmetics.createFieldElementArithmetics(BigInteger.valueOf(15));
+        f.inv(f.getElementFactory().createFrom(BigInteger.valueOf(6)));
+    }
+
+    @Test
+    public void testInverseAll(){
+        FiniteFieldElement[] in = new FiniteFieldElement[times/10];
+        for(int i=0;i<in.length;i++) in[i] = arithmetics.getElementFactory().createFrom(new BigInteger(Integer.toString(random.nextInt(generator))));
+        in[0] = arithmetics.getElementFactory().createFrom(BigInteger.ZERO);
+        in[in.length-1] = arithmetics.getElementFactory().createFrom(biGenerator);
+        FiniteFieldElement[] out = new FiniteFieldElement[in.length];
+        arithmetics.invAll(in, out);
+        for(int i=0;i<in.length;i++){
+            BigInteger x = in[i].mod(biGenerator);
+            Assert.assertEquals(x.equals(BigInteger.ZERO) ? BigInteger.ZERO : x.modInverse(biGenerator), out[i]);
+        }
+        arithmetics.invAll(out, out);
+        for(int i=0;i<in.length;i++) Assert.assertEquals(in[i].mod(biGenerator), out[i]);
+    }
+    
     @Test
     public void testComplement(){
         for(int i=0;i<times;i++){
@@ -104,6 +146,15 @@ public class PrimeFieldArithmeticsTest {
         } 
     }
     
+    @Test
+    public void testSquare(){
+        for(int i=0;i<times;i++){
+            BigInteger x = new BigInteger(Integer.toString(random.nextInt(generator)));
+            BigInteger res = x.multiply(x).mod(biGenerator);
+            Assert.assertEquals(res, arithmetics.sqr(arithmetics.getElementFactory().createFrom(x)));
+        } 
+    }
+    
     @Test(expected = MultiplicativeGroupException.class)
     public void testMulMultiplicativeException(){
         BigInteger x = BigInteger.ZERO;
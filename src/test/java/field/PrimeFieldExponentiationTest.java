@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.PrimeFieldReduction;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author trident
+ */
+public class PrimeFieldExponentiationTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 50;
+        random = new Random();
+    }
+
+    @Test
+    public void testCurvePrimes(){
+        for(SECP secp: SECP.values()){
+            if(!secp.getType()) continue;
+            BigInteger p = new BigInteger(secp.getP(), 16);
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p));
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.MONTGOMERY));
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.GENERIC));
+        }
+    }
+
+    @Test
+    public void testSmallPrimes(){
+        for(int prime: new int[]{2, 3, 5, 7, 13, 17, 41, 257, 1009, 65537}){
+            BigInteger p = BigInteger.valueOf(prime);
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p));
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.BARRETT));
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSqrtOfNonResidue(){
+        BigInteger p = new BigInteger(SECP.SECP224R1.getP(), 16);
+        FiniteFieldElementArithmetics arithmetics = FiniteFieldElementArithmetics.createFieldElementArithmetics(p);
+        BigInteger x = BigInteger.valueOf(2);
+        while(x.modPow(p.shiftRight(1), p).equals(BigInteger.ONE)) x = x.add(BigInteger.ONE);
+        arithmetics.sqrt(arithmetics.getElementFactory().createFrom(x));
+    }
+
+    private void check(BigInteger p, FiniteFieldElementArithmetics arithmetics){
+        for(int i=0;i<times;i++){
+            BigInteger x = new BigInteger(p.bitLength(), random).mod(p);
+            BigInteger e = new BigInteger(p.bitLength()+8, random).subtract(BigInteger.ONE.shiftLeft(p.bitLength()+7));
+            FiniteFieldElement ex = arithmetics.getElementFactory().createFrom(x);
+            if(x.signum()!=0){
+                Assert.assertEquals(x.modInverse(p), arithmetics.inv(ex));
+                Assert.assertEquals(x.modPow(e, p), arithmetics.pow(ex, e));
+            }
+            Assert.assertEquals(x.modPow(e.abs(), p), arithmetics.pow(ex, e.abs()));
+            Assert.assertEquals(BigInteger.ONE, arithmetics.pow(ex, BigInteger.ZERO));
+            FiniteFieldElement square = arithmetics.sqr(ex);
+            Assert.assertEquals(square, arithmetics.sqr(arithmetics.sqrt(square)));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.PrimeField;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.PrimeFieldReduction;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author trident
+ */
+public class PrimeFieldReductionTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 10000;
+        random = new Random();
+    }
+
+    @Test
+    public void testSolinas(){
+        for(SECP secp: new SECP[]{SECP.SECP192R1, SECP.SECP224R1, SECP.SECP256R1, SECP.SECP384R1, SECP.SECP521R1}){
+            BigInteger p = new BigInteger(secp.getP(), 16);
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.SOLINAS));
+        }
+    }
+
+    @Test
+    public void testPseudoMersenne(){
+        for(SECP secp: new SECP[]{SECP.SECP192K1, SECP.SECP224K1, SECP.SECP256K1, SECP.SECP521R1}){
+            BigInteger p = new BigInteger(secp.getP(), 16);
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.PSEUDO_MERSENNE));
+        }
+    }
+
+    @Test
+    public void testBarrett(){
+        for(SECP secp: SECP.values()){
+            if(!secp.getType()) continue;
+            BigInteger p = new BigInteger(secp.getP(), 16);
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.BARRETT));
+        }
+        for(int bits: new int[]{5, 10, 61, 64, 65, 127, 160, 255, 300}){
+            BigInteger p = BigInteger.probablePrime(bits, random);
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.BARRETT));
+            check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p));
+        }
+    }
+
+    @Test
+    public void testBarrettConstantIsCached(){
+        PrimeField field = new PrimeField(BigInteger.valueOf(1009));
+        Assert.assertSame(field.getBarrettConstant(), field.getBarrettConstant());
+        Assert.assertEquals(BigInteger.ONE.shiftLeft(128).divide(BigInteger.valueOf(1009)), field.getBarrettConstant());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testPseudoMersenneUnsupportedPrime(){
+        BigInteger p = new BigInteger(SECP.SECP256R1.getP(), 16);
+        FiniteFieldElementArithmetics.createFieldElementArithmetics(p, PrimeFieldReduction.PSEUDO_MERSENNE);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSolinasUnsupportedPrime(){
+        FiniteFieldElementArithmetics.createFieldElementArithmetics(BigInteger.valueOf(1009), PrimeFieldReduction.SOLINAS);
+    }
+
+    private void check(BigInteger p, FiniteFieldElementArithmetics arithmetics){
+        BigInteger pm = p.subtract(BigInteger.ONE);
+        BigInteger[] edges = {BigInteger.ZERO, BigInteger.ONE, pm, p, p.add(BigInteger.ONE), pm.multiply(pm), p.shiftLeft(1), BigInteger.ONE.shiftLeft(p.bitLength())};
+        for(BigInteger x: edges){
+            Assert.assertEquals(x.mod(p), arithmetics.mod(arithmetics.getElementFactory().createFrom(x)));
+        }
+        for(int i=0;i<times;i++){
+            BigInteger x = new BigInteger(p.bitLength(), random).mod(p);
+            BigInteger y = new BigInteger(p.bitLength(), random).mod(p);
+            BigInteger xy = x.multiply(y);
+            Assert.assertEquals(xy.mod(p), arithmetics.mod(arithmetics.getElementFactory().createFrom(xy)));
+            Assert.assertEquals(xy.mod(p), arithmetics.mul(arithmetics.getElementFactory().createFrom(x), arithmetics.getElementFactory().createFrom(y)));
+            Assert.assertEquals(x.multiply(x).mod(p), arithmetics.sqr(arithmetics.getElementFactory().createFrom(x)));
+        }
+    }
+}
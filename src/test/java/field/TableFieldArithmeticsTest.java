@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.field.element.BinaryExtensionFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.exception.MultiplicativeGroupException;
+import com.trident.crypto.field.operator.BinaryFieldMultiplication;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import com.trident.crypto.field.operator.MutableFiniteFieldElement;
+import com.trident.crypto.field.operator.PrimeFieldReduction;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * the small fields get the logarithm tables, the results are compared
+ * with the arithmetics selected explicitly
+ * @author trident
+ */
+public class TableFieldArithmeticsTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 2000;
+        random = new Random();
+    }
+
+    @Test
+    public void testPrimeFields(){
+        for(int p: new int[]{2, 3, 17, 1009, 65521, 1048573}){
+            BigInteger order = BigInteger.valueOf(p);
+            check(FiniteFieldElementArithmetics.createFieldElementArithmetics(order),
+                    FiniteFieldElementArithmetics.createFieldElementArithmetics(order, PrimeFieldReduction.GENERIC), order.bitLength());
+        }
+    }
+
+    @Test
+    public void testBinaryFields(){
+        // x is not a generator of the AES field
+        for(String p: new String[]{"x^1 1", "x^2 x^1 1", "x^8 x^4 x^3 x^1 1", "x^13 x^4 x^3 x^1 1", "x^20 x^3 1"}){
+            BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(p);
+            check(FiniteFieldElementArithmetics.createFieldElementArithmetics(poly),
+                    FiniteFieldElementArithmetics.createFieldElementArithmetics(poly, BinaryFieldMultiplication.COMB), poly.getDegree());
+        }
+    }
+
+    @Test
+    public void testReduciblePolynomial(){
+        // no tables for x^4 + 1 = (x + 1)^4, the arithmetics falls back to the words
+        BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString("x^4 1");
+        FiniteFieldElementArithmetics f = FiniteFieldElementArithmetics.createFieldElementArithmetics(poly);
+        FiniteFieldElementArithmetics g = FiniteFieldElementArithmetics.createFieldElementArithmetics(poly, BinaryFieldMultiplication.COMB);
+        for(int x=0;x<16;x++){
+            for(int y=0;y<16;y++){
+                FiniteFieldElement ex = f.getElementFactory().createFrom(BigInteger.valueOf(x));
+                FiniteFieldElement ey = f.getElementFactory().createFrom(BigInteger.valueOf(y));
+                Assert.assertEquals(g.mul(ex, ey), f.mul(ex, ey));
+            }
+        }
+    }
+
+    private void check(FiniteFieldElementArithmetics f, FiniteFieldElementArithmetics g, int bits){
+        FiniteFieldElement zero = f.getElementFactory().createFrom(BigInteger.ZERO);
+        try{
+            f.inv(zero);
+            Assert.fail("zero has no inverse");
+        } catch(MultiplicativeGroupException e){}
+        MutableFiniteFieldElement mx = f.newMutableElement();
+        MutableFiniteFieldElement my = f.newMutableElement();
+        for(int i=0;i<times;i++){
+            FiniteFieldElement x = f.mod(f.getElementFactory().createFrom(new BigInteger(bits, random)));
+            FiniteFieldElement y = f.mod(f.getElementFactory().createFrom(new BigInteger(bits, random)));
+            BigInteger e = new BigInteger(40, random).subtract(BigInteger.ONE.shiftLeft(39));
+            Assert.assertEquals(g.mul(x, y), f.mul(x, y));
+            Assert.assertEquals(g.sqr(x), f.sqr(x));
+            if(x.signum()!=0){
+                Assert.assertEquals(g.inv(x), f.inv(x));
+                Assert.assertEquals(g.pow(x, e), f.pow(x, e));
+            }
+            Assert.assertEquals(g.pow(x, e.abs()), f.pow(x, e.abs()));
+            FiniteFieldElement s = f.sqr(x);
+            Assert.assertEquals(s, f.sqr(f.sqrt(s)));
+            f.load(mx, x);
+            f.load(my, y);
+            f.mulInto(my, mx, my);
+            Assert.assertEquals(g.mul(x, y), f.store(my));
+            f.sqrInto(mx, mx);
+            Assert.assertEquals(g.sqr(x), f.store(mx));
+            if(x.signum()!=0){
+                f.load(mx, x);
+                f.invInto(mx, mx);
+                Assert.assertEquals(g.inv(x), f.store(mx));
+            }
+        }
+    }
+}
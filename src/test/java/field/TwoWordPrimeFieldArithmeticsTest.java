@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author trident
+ */
+public class TwoWordPrimeFieldArithmeticsTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 10000;
+        random = new Random();
+    }
+
+    @Test
+    public void testSmallCurves(){
+        for(SECP secp: new SECP[]{SECP.SECP112R1, SECP.SECP112R2, SECP.SECP128R1, SECP.SECP128R2}){
+            BigInteger p = new BigInteger(secp.getP(), 16);
+            PrimeFieldArithmeticsCheck.check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p), times, random);
+        }
+    }
+
+    @Test
+    public void testRandomPrimes(){
+        for(int bits: new int[]{2, 17, 63, 64, 65, 100, 127, 128}){
+            BigInteger p = BigInteger.probablePrime(bits, random);
+            PrimeFieldArithmeticsCheck.check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p), times, random);
+        }
+        BigInteger p = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.valueOf(159)); // largest prime below 2^128
+        PrimeFieldArithmeticsCheck.check(p, FiniteFieldElementArithmetics.createFieldElementArithmetics(p), times, random);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 trident.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package field;
+
+import com.trident.crypto.elliptic.nist.SECP;
+import com.trident.crypto.field.BinaryExtensionField;
+import com.trident.crypto.field.element.BinaryExtensionFieldElement;
+import com.trident.crypto.field.element.FiniteFieldElement;
+import com.trident.crypto.field.operator.BinaryFieldInversion;
+import com.trident.crypto.field.operator.BinaryFieldMultiplication;
+import com.trident.crypto.field.operator.FiniteFieldElementArithmetics;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * checks the word arithmetics of all SECT fields against 
+ * the bitwise polynomial arithmetics on BigInteger
+ * @author trident
+ */
+public class WordBinaryExtensionFieldArithmeticsTest {
+    private int times;
+    private Random random;
+
+    @Before
+    public void init(){
+        times = 300;
+        random = new Random();
+    }
+
+    @Test
+    public void testAllFields(){
+        for(SECP secp: SECP.values()){
+            if(secp.getType()) continue;
+            BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(secp.getP());
+            check(poly, FiniteFieldElementArithmetics.createFieldElementArithmetics(poly));
+        }
+    }
+
+    @Test
+    public void testKaratsuba(){
+        for(SECP secp: SECP.values()){
+            if(secp.getType()) continue;
+            BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(secp.getP());
+            check(poly, FiniteFieldElementArithmetics.createFieldElementArithmetics(poly, BinaryFieldMultiplication.KARATSUBA));
+        }
+    }
+
+    @Test
+    public void testDensePolynomials(){
+        // AES polynomial, the term close to the degree and the degree multiple of 64
+        for(String p: new String[]{"x^8 x^4 x^3 x^1 1", "x^67 x^66 x^65 x^62 1", "x^128 x^7 x^2 x^1 1"}){
+            BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(p);
+            check(poly, FiniteFieldElementArithmetics.createFieldElementArithmetics(poly));
+        }
+    }
+
+    @Test
+    public void testInversions(){
+        for(SECP secp: SECP.values()){
+            if(secp.getType()) continue;
+            BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(secp.getP());
+            for(BinaryFieldInversion inversion: BinaryFieldInversion.values()){
+                FiniteFieldElementArithmetics f = FiniteFieldElementArithmetics.createFieldElementArithmetics(poly, inversion);
+                FiniteFieldElement one = f.getElementFactory().createFrom(BigInteger.ONE);
+                Assert.assertEquals(one, f.inv(one));
+                for(int i=0;i<times/10;i++){
+                    FiniteFieldElement a = f.getElementFactory().createFrom(new BigInteger(poly.getDegree(), random));
+                    if(a.equals(BigInteger.ZERO)) continue;
+                    Assert.assertEquals(one, f.mul(f.inv(a), a));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testQuadraticEquation(){
+        List<String> polys = new ArrayList<>();
+        for(SECP secp: SECP.values()){
+            if(!secp.getType()) polys.add(secp.getP());
+        }
+        polys.add("x^8 x^4 x^3 x^1 1");
+        polys.add("x^128 x^7 x^2 x^1 1");
+        for(String p: polys){
+            BinaryExtensionFieldElement poly = BinaryExtensionFieldElement.fromString(p);
+            FiniteFieldElementArithmetics f = FiniteFieldElementArithmetics.createFieldElementArithmetics(poly);
+            int m = poly.getDegree();
+            for(int i=0;i<times/30;i++){
+                FiniteFieldElement c = f.getElementFactory().createFrom(new BigInteger(m, random));
+                // the trace by definition
+                FiniteFieldElement trace = c;
+                FiniteFieldElement c2 = c;
+                for(int j=1;j<m;j++){
+                    c2 = f.sqr(c2);
+                    trace = f.add(trace, c2);
+                }
+                Assert.assertEquals(trace, f.trace(c));
+                if((m&1)==1){
+                    FiniteFieldElement h = f.halfTrace(c);
+                    Assert.assertEquals(f.add(c, trace), f.add(f.sqr(h), h));
+                }
+                if(trace.equals(BigInteger.ZERO)){
+                    FiniteFieldElement z = f.solveQuadratic(c);
+                    Assert.assertEquals(c, f.add(f.sqr(z), z));
+                } else {
+                    try{
+                        f.solveQuadratic(c);
+                        Assert.fail("the equation with the trace 1 should have no solution");
+                    } catch(RuntimeException e){}
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExponents(){
+        BinaryExtensionField field = new BinaryExtensionField(BinaryExtensionFieldElement.fromString(SECP.SECT283K1.getP()));
+        Assert.assertArrayEquals(new int[]{283, 12, 7, 5, 0}, field.getExponents());
+    }
+
+    private void check(BigInteger poly, FiniteFieldElementArithmetics f){
+        int m = poly.bitLength()-1;
+        BigInteger top = BigInteger.ONE.shiftLeft(m).subtract(BigInteger.ONE);
+        Assert.assertEquals(BigInteger.ZERO, f.mod(f.getElementFactory().createFrom(poly)));
+        Assert.assertEquals(top, f.mod(f.getElementFactory().createFrom(top)));
+        for(int i=0;i<times;i++){
+            BigInteger a = i==0 ? top : new BigInteger(m, random);
+            BigInteger b = new BigInteger(m, random);
+            BigInteger wide = new BigInteger(2*m+random.nextInt(64), random);
+            FiniteFieldElement ea = f.getElementFactory().createFrom(a);
+            FiniteFieldElement eb = f.getElementFactory().createFrom(b);
+            Assert.assertEquals(mod(wide, poly), f.mod(f.getElementFactory().createFrom(wide)));
+            Assert.assertEquals(a.xor(b), f.add(ea, eb));
+            Assert.assertEquals(mod(product(a, b), poly), f.mul(ea, eb));
+            Assert.assertEquals(mod(product(a, a), poly), f.sqr(ea));
+            Assert.assertEquals(a, f.sqr(f.sqrt(ea)));
+            Assert.assertEquals(mod(product(a, b).xor(wide), poly), f.mulAdd(ea, eb, f.getElementFactory().createFrom(wide)));
+            if(!a.equals(BigInteger.ZERO)){
+                Assert.assertEquals(BigInteger.ONE, f.mul(f.inv(ea), ea));
+            }
+        }
+    }
+
+    private static BigInteger product(BigInteger a, BigInteger b){
+        BigInteger r = BigInteger.ZERO;
+        for(int i=0;i<a.bitLength();i++){
+            if(a.testBit(i)) r = r.xor(b.shiftLeft(i));
+        }
+        return r;
+    }
+
+    private static BigInteger mod(BigInteger a, BigInteger poly){
+        int m = poly.bitLength()-1;
+        while(a.bitLength()>m) a = a.xor(poly.shiftLeft(a.bitLength()-1-m));
+        return a;
+    }
+}